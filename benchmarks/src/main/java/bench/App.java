@@ -0,0 +1,44 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+// The application classes live in the default package, which code in a named package (and the code JMH
+// generates) cannot import. Benchmarks reach them through method handles resolved once per trial.
+final class App {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private App() {
+    }
+
+    static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Application class not on the classpath: " + className, e);
+        }
+    }
+
+    // Public constructor of an application class
+    static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.unreflectConstructor(type(className).getConstructor(parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Public static or instance method of an application class; instance methods take the receiver first
+    static MethodHandle method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.unreflect(type(className).getMethod(name, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Object newInstance(String className) throws Throwable {
+        return constructor(className).invoke();
+    }
+}
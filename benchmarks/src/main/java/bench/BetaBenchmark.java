@@ -0,0 +1,43 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// RiskMgmtPanel.computeBetas against the SPX history
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BetaBenchmark {
+
+    @Param({"10", "100"})
+    public int universe;
+
+    private Object riskAnalytics;
+    private Map<?, ?> stockDataMap;
+    private Object spxData;
+    private MethodHandle computeBetas;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SyntheticDatabase.use(100, 4);
+        Object stockDataService = App.newInstance("StockDataService");
+        stockDataMap = (Map<?, ?>) App.method("StockDataService", "getClosePrices", Collection.class)
+                .invoke(stockDataService, SyntheticDatabase.symbols(universe));
+        spxData = App.method("StockDataService", "getSpxData").invoke(stockDataService);
+        // The analytics methods do not touch the panel's UI, so no application frame is needed
+        riskAnalytics = App.constructor("RiskMgmtPanel", App.type("StockPortfolioApp")).invoke(null);
+        computeBetas = App.method("RiskMgmtPanel", "computeBetas", Map.class, App.type("PriceSeries"));
+    }
+
+    @Benchmark
+    public Object computeBetas() throws Throwable {
+        return computeBetas.invoke(riskAnalytics, stockDataMap, spxData);
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Series behind the performance comparison chart: alignment, two backtests and the chart dataset
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChartSeriesBenchmark {
+
+    @Param({"10", "50"})
+    public int universe;
+
+    private Object optimizationPanel;
+    private Map<?, ?> stockDataMap;
+    private Map<String, Integer> quantities;
+    private Map<String, Double> weights;
+    private Object snapshot;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private MethodHandle computePerformanceComparison;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SyntheticDatabase.use(100, 4);
+        List<String> symbols = SyntheticDatabase.symbols(universe);
+        Object stockDataService = App.newInstance("StockDataService");
+        stockDataMap = (Map<?, ?>) App.method("StockDataService", "getClosePrices", Collection.class)
+                .invoke(stockDataService, symbols);
+        snapshot = App.method("ValuationService", "snapshot", Collection.class)
+                .invoke(App.newInstance("ValuationService"), symbols);
+
+        quantities = new HashMap<>();
+        weights = new HashMap<>();
+        for (int i = 0; i < symbols.size(); i++) {
+            quantities.put(symbols.get(i), 100 + 10 * i);
+            weights.put(symbols.get(i), 1.0 / symbols.size());
+        }
+        List<LocalDate> days = SyntheticDatabase.tradingDays(4);
+        fromDate = days.get(0);
+        toDate = days.get(days.size() - 1);
+
+        optimizationPanel = App.constructor("OptimizationPanel", App.type("StockPortfolioApp")).invoke(null);
+        computePerformanceComparison = App.method("OptimizationPanel", "computePerformanceComparison",
+                Map.class, Map.class, Map.class, LocalDate.class, LocalDate.class, App.type("PriceSnapshot"));
+    }
+
+    @Benchmark
+    public Object performanceComparison() throws Throwable {
+        return computePerformanceComparison.invoke(optimizationPanel, stockDataMap, quantities, weights, fromDate, toDate, snapshot);
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Loading every symbol's close history from SQLite: the application's one query per symbol
+// (StockDataService.getClosePrices) versus a single ordered scan of stock_data
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HistoryLoadBenchmark {
+
+    @Param({"100"})
+    public int universe;
+
+    private Object stockDataService;
+    private List<String> symbols;
+    private MethodHandle getClosePrices;
+    private MethodHandle parseIso;
+    private MethodHandle priceSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SyntheticDatabase.use(universe, 4);
+        stockDataService = App.newInstance("StockDataService");
+        symbols = SyntheticDatabase.symbols(universe);
+        getClosePrices = App.method("StockDataService", "getClosePrices", Collection.class);
+        parseIso = App.method("EpochDays", "parseIso", CharSequence.class);
+        priceSeries = App.method("PriceSeries", "of", int[].class, double[].class, int.class);
+    }
+
+    @Benchmark
+    public Object perSymbol() throws Throwable {
+        return getClosePrices.invoke(stockDataService, symbols);
+    }
+
+    @Benchmark
+    public Object bulk() throws Throwable {
+        Map<String, Object> stockDataMap = new HashMap<>();
+        try (Connection conn = SyntheticDatabase.connect();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT stock_symbol, date, close FROM stock_data ORDER BY stock_symbol, date");
+             ResultSet rs = stmt.executeQuery()) {
+            String currentSymbol = null;
+            int[] days = new int[1024];
+            double[] closes = new double[1024];
+            int size = 0;
+            while (rs.next()) {
+                String stockSymbol = rs.getString(1);
+                if (!stockSymbol.equals(currentSymbol)) {
+                    if (currentSymbol != null) {
+                        stockDataMap.put(currentSymbol, priceSeries.invoke(days, closes, size));
+                    }
+                    currentSymbol = stockSymbol;
+                    size = 0;
+                }
+                if (size == days.length) {
+                    days = Arrays.copyOf(days, size * 2);
+                    closes = Arrays.copyOf(closes, size * 2);
+                }
+                days[size] = (int) parseIso.invoke((CharSequence) rs.getString(2));
+                closes[size] = rs.getDouble(3);
+                size++;
+            }
+            if (currentSymbol != null) {
+                stockDataMap.put(currentSymbol, priceSeries.invoke(days, closes, size));
+            }
+        }
+        return stockDataMap;
+    }
+}
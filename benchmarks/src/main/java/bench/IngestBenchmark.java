@@ -0,0 +1,46 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// StockDataReader.ingest: CSV parsing, batched inserts, symbol catalog and index, reported per row
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class IngestBenchmark {
+
+    private static final int SYMBOLS = 50;
+    private static final int YEARS = 4;
+    private static final int ROWS = SYMBOLS * 1045; // trading days in 4 years of generated data
+
+    private Path csv;
+    private Path db;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        csv = Files.createTempFile("portfolio-ingest", ".csv");
+        SyntheticDatabase.writeStockCsv(csv, SYMBOLS, YEARS);
+        db = Files.createTempFile("portfolio-ingest", ".db");
+        System.setProperty("stocks.db", db.toString());
+        SyntheticDatabase.createTables();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(db);
+    }
+
+    // Each call replaces the table contents, as a re-import does
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int ingest() throws Throwable {
+        return SyntheticDatabase.ingest(csv);
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// PortfolioOptimizer statistics + Nelder-Mead run (what computeEfficientFrontier does) across universe sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OptimizerBenchmark {
+
+    @Param({"5", "10", "25", "50"})
+    public int universe;
+
+    private Object optimizer;
+    private Map<?, ?> stockDataMap;
+    private Object nelderMead;
+    private MethodHandle computeStatistics;
+    private MethodHandle run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        SyntheticDatabase.use(100, 4);
+        stockDataMap = (Map<?, ?>) App.method("StockDataService", "getClosePrices", Collection.class)
+                .invoke(App.newInstance("StockDataService"), SyntheticDatabase.symbols(universe));
+        optimizer = App.newInstance("PortfolioOptimizer");
+        nelderMead = App.type("OptimizationMethod").getField("NELDER_MEAD").get(null);
+        computeStatistics = App.method("PortfolioOptimizer", "computeStatistics", Map.class);
+        run = App.method("PortfolioOptimizer", "run", App.type("ReturnStatistics"), double.class,
+                App.type("OptimizationMethod"), boolean.class);
+    }
+
+    // Larger universes can exhaust the optimizer's evaluation budget; run() reports such a run as not
+    // converged instead of throwing, so it is measured at its full cost
+    @Benchmark
+    public Object computeEfficientFrontier() throws Throwable {
+        Object statistics = computeStatistics.invoke(optimizer, stockDataMap);
+        return run.invoke(optimizer, statistics, 0.02, nelderMead, false);
+    }
+}
@@ -0,0 +1,96 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Benchmark data from the application's SyntheticMarketData generator: the same seed always produces the
+// same CSV and database. Irregularities (late listings, gaps, splits) are switched off so every symbol has
+// a full, aligned history. Databases are cached in the temp directory between runs.
+final class SyntheticDatabase {
+
+    static final long SEED = 42L;
+    private static final int FORMAT_VERSION = 2; // bump when the generated data changes
+
+    private SyntheticDatabase() {
+    }
+
+    static List<String> symbols(int count) throws Throwable {
+        MethodHandle symbol = App.method("SyntheticMarketData", "symbol", int.class);
+        List<String> symbols = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) symbols.add((String) symbol.invoke(i));
+        return symbols;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<LocalDate> tradingDays(int years) throws Throwable {
+        return (List<LocalDate>) App.method("SyntheticMarketData", "getTradingDays").invoke(generator(1, years));
+    }
+
+    // Configured generator without late listings, gaps or splits
+    static Object generator(int numSymbols, int years) throws Throwable {
+        Object generator = App.newInstance("SyntheticMarketData");
+        App.method("SyntheticMarketData", "seed", long.class).invoke(generator, SEED);
+        App.method("SyntheticMarketData", "symbols", int.class).invoke(generator, numSymbols);
+        App.method("SyntheticMarketData", "years", int.class).invoke(generator, years);
+        App.method("SyntheticMarketData", "lateListings", double.class).invoke(generator, 0.0);
+        App.method("SyntheticMarketData", "gaps", double.class).invoke(generator, 0.0);
+        App.method("SyntheticMarketData", "splits", double.class).invoke(generator, 0.0);
+        return generator;
+    }
+
+    // Database with the given universe, selected for this JVM through -Dstocks.db
+    static synchronized Path use(int numSymbols, int years) throws Throwable {
+        Path db = Paths.get(System.getProperty("java.io.tmpdir"),
+                "portfolio-bench-v" + FORMAT_VERSION + "-" + numSymbols + "x" + years + "y.db");
+        System.setProperty("stocks.db", db.toString());
+        if (!Files.exists(db)) {
+            Path directory = Files.createTempDirectory("portfolio-bench");
+            try {
+                App.method("SyntheticMarketData", "generate", Path.class, boolean.class)
+                        .invoke(generator(numSymbols, years), directory, true);
+                Files.move(directory.resolve("stocks.db"), db);
+            } finally {
+                for (String name : new String[]{"stocks.csv", "index.csv", "stocks.db"}) {
+                    Files.deleteIfExists(directory.resolve(name));
+                }
+                Files.deleteIfExists(directory);
+            }
+        }
+        return db;
+    }
+
+    // stock_data CSV in the import format
+    static void writeStockCsv(Path csv, int numSymbols, int years) throws Throwable {
+        App.method("SyntheticMarketData", "writeStockCsv", Path.class).invoke(generator(numSymbols, years), csv);
+    }
+
+    static void createTables() throws Throwable {
+        App.method("DatabaseUtil", "createStockDataTableIfNotExists").invoke();
+        App.method("DatabaseUtil", "createIndexDataTableIfNotExists").invoke();
+        App.method("DatabaseUtil", "createSymbolCatalogTableIfNotExists").invoke();
+    }
+
+    static Connection connect() throws Throwable {
+        return (Connection) App.method("DatabaseUtil", "connect").invoke();
+    }
+
+    // Runs StockDataReader.ingest in one transaction; returns the number of rows stored
+    static int ingest(Path csv) throws Throwable {
+        MethodHandle ingest = App.method("StockDataReader", "ingest", BufferedReader.class, Connection.class, IntConsumer.class);
+        try (BufferedReader reader = Files.newBufferedReader(csv);
+             Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            int rows = (int) ingest.invoke(reader, conn, (IntConsumer) count -> { });
+            conn.commit();
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Close prices of several stocks on one shared, sorted trading-day axis.
+// Gaps are forward-filled; days before a stock's first price are NaN.
+public class AlignedPrices {
+
+    private final List<String> stockSymbols;
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private final int[] days;         // trading days (epoch days), ascending
+    private final double[][] closes;  // [symbol][day]
+
+    public AlignedPrices(List<String> stockSymbols, int[] days, double[][] closes) {
+        this.stockSymbols = stockSymbols;
+        this.days = days;
+        this.closes = closes;
+        for (int i = 0; i < stockSymbols.size(); i++) {
+            symbolIndex.put(stockSymbols.get(i), i);
+        }
+    }
+
+    public static AlignedPrices fromPriceSeries(Map<String, PriceSeries> stockDataMap) {
+        List<String> stockSymbols = new ArrayList<>(stockDataMap.keySet());
+
+        // Union of all trading days
+        int total = 0;
+        for (PriceSeries prices : stockDataMap.values()) {
+            total += prices.size();
+        }
+        int[] allDays = new int[total];
+        int n = 0;
+        for (PriceSeries prices : stockDataMap.values()) {
+            System.arraycopy(prices.getDays(), 0, allDays, n, prices.size());
+            n += prices.size();
+        }
+        Arrays.sort(allDays);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || allDays[i] != allDays[unique - 1]) {
+                allDays[unique++] = allDays[i];
+            }
+        }
+        int[] days = Arrays.copyOf(allDays, unique);
+
+        // Place each stock's prices on the shared axis, then forward-fill
+        double[][] closes = new double[stockSymbols.size()][];
+        for (int s = 0; s < stockSymbols.size(); s++) {
+            double[] row = new double[unique];
+            Arrays.fill(row, Double.NaN);
+            PriceSeries prices = stockDataMap.get(stockSymbols.get(s));
+            int[] seriesDays = prices.getDays();
+            double[] seriesCloses = prices.getCloses();
+            // Both day arrays are ascending, so merge instead of searching
+            int d = 0;
+            for (int i = 0; i < seriesDays.length; i++) {
+                while (days[d] != seriesDays[i]) d++;
+                row[d] = seriesCloses[i];
+            }
+            forwardFill(row);
+            closes[s] = row;
+        }
+        return new AlignedPrices(stockSymbols, days, closes);
+    }
+
+    private static void forwardFill(double[] row) {
+        double last = Double.NaN;
+        for (int d = 0; d < row.length; d++) {
+            if (Double.isNaN(row[d]) || row[d] <= 0) {
+                row[d] = last;
+            } else {
+                last = row[d];
+            }
+        }
+    }
+
+    // First trading day on or after the given epoch day
+    public int startIndex(int fromDay) {
+        int i = Arrays.binarySearch(days, fromDay);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    // One past the last trading day on or before the given epoch day
+    public int endIndex(int toDay) {
+        int i = Arrays.binarySearch(days, toDay);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    public int indexOf(String stockSymbol) {
+        Integer index = symbolIndex.get(stockSymbol);
+        return index != null ? index : -1;
+    }
+
+    public List<String> getStockSymbols() {
+        return stockSymbols;
+    }
+
+    public int[] getDays() {
+        return days;
+    }
+
+    public double[] getCloses(int symbolIndex) {
+        return closes[symbolIndex];
+    }
+
+    public double[][] getCloses() {
+        return closes;
+    }
+
+    // Last available close of a stock, or 0 if it has none
+    public double getLatestPrice(String stockSymbol) {
+        int index = indexOf(stockSymbol);
+        if (index < 0 || days.length == 0) return 0.0;
+        double price = closes[index][days.length - 1];
+        return Double.isNaN(price) ? 0.0 : price;
+    }
+
+    public int numSymbols() {
+        return stockSymbols.size();
+    }
+
+    public int numDays() {
+        return days.length;
+    }
+}
@@ -0,0 +1,332 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.math3.distribution.NormalDistribution;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local HTTP server exposing the optimizer and risk analytics over a preloaded, read-only PriceStore.
+// Requests are independent and run concurrently, on virtual threads when the JVM has them.
+//
+// Holdings are passed as ?holdings=AAPL:100,MSFT:50 or as a CSV/JSON request body (see PortfolioFileReader).
+//   GET /health
+//   GET /optimize?holdings=...&rf=0.02&method=NELDER_MEAD&trace=false
+//   GET /betas?holdings=...
+//   GET /var?holdings=...&confidence=0.99&horizon=1&lookback=756
+//   GET /backtest?holdings=...&from=yyyy-MM-dd&to=yyyy-MM-dd&series=false
+public class AnalyticsServer {
+
+    private final PriceStore priceStore;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public AnalyticsServer(PriceStore priceStore, String host, int port) throws IOException {
+        this.priceStore = priceStore;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+
+        server.createContext("/health", exchange -> handle(exchange, (params, json) -> health(json)));
+        server.createContext("/optimize", exchange -> handle(exchange, this::optimize));
+        server.createContext("/betas", exchange -> handle(exchange, this::betas));
+        server.createContext("/var", exchange -> handle(exchange, this::valueAtRisk));
+        server.createContext("/backtest", exchange -> handle(exchange, this::backtest));
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Metrics.registerMBean();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String host = args.length > 1 ? args[1] : "127.0.0.1";
+
+        long start = System.nanoTime();
+        PriceStore priceStore = PriceStore.load();
+        System.out.println("Loaded " + priceStore.numSymbols() + " symbols in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        AnalyticsServer analyticsServer = new AnalyticsServer(priceStore, host, port);
+        analyticsServer.start();
+        System.out.println("Analytics server listening on http://" + host + ":" + port);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // One virtual thread per request on JDK 21+, found reflectively so the code still builds and runs on
+    // older JDKs, which fall back to a cached pool of platform threads
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            System.out.println("Handling requests on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            System.out.println("Virtual threads not available, handling requests on a cached thread pool");
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "analytics-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private interface Endpoint {
+        void handle(Map<String, String> params, JsonWriter json) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        StringWriter body = new StringWriter();
+        try {
+            Map<String, String> params = queryParameters(exchange.getRequestURI().getRawQuery());
+            if ("POST".equals(exchange.getRequestMethod())) {
+                try (InputStream in = exchange.getRequestBody()) {
+                    params.put("body", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            endpoint.handle(params, new JsonWriter(body));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            status = 400;
+            body = errorBody(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 500;
+            body = errorBody(e.toString());
+        }
+
+        byte[] response = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+
+        String path = exchange.getHttpContext().getPath();
+        Metrics.timer("http" + path).update(System.nanoTime() - start);
+        if (status != 200) {
+            Metrics.counter("http" + path + ".errors").increment();
+        }
+    }
+
+    private static StringWriter errorBody(String message) throws IOException {
+        StringWriter body = new StringWriter();
+        new JsonWriter(body).beginObject().name("error").value(message).endObject();
+        return body;
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    private static double doubleParam(Map<String, String> params, String name, double defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    // Holdings from ?holdings=AAPL:100,MSFT:50 or from the request body
+    private static Map<String, Integer> holdings(Map<String, String> params) {
+        Map<String, Integer> portfolio = new LinkedHashMap<>();
+        String holdings = params.get("holdings");
+        if (holdings != null && !holdings.isEmpty()) {
+            for (String holding : holdings.split(",")) {
+                String[] parts = holding.split(":");
+                try {
+                    portfolio.merge(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1, Integer::sum);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid holding " + holding);
+                }
+            }
+        } else if (params.get("body") != null) {
+            try {
+                portfolio = new PortfolioFileReader().parse(params.get("body"), "request body");
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+        }
+        if (portfolio.isEmpty()) {
+            throw new IllegalArgumentException("No holdings given");
+        }
+        return portfolio;
+    }
+
+    private Map<String, Double> notionals(Map<String, Integer> portfolio) {
+        PriceSnapshot snapshot = priceStore.getSnapshot();
+        Map<String, Double> notionals = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
+            notionals.put(entry.getKey(), entry.getValue() * snapshot.getPrice(entry.getKey()));
+        }
+        return notionals;
+    }
+
+    private static Map<String, Double> weights(Map<String, Double> notionals) {
+        double total = notionals.values().stream().mapToDouble(Double::doubleValue).sum();
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, Double> entry : notionals.entrySet()) {
+            weights.put(entry.getKey(), total > 0 ? entry.getValue() / total : 0.0);
+        }
+        return weights;
+    }
+
+    private void health(JsonWriter json) throws IOException {
+        json.beginObject()
+                .name("symbols").value(priceStore.numSymbols())
+                .name("loadedAt").value(priceStore.getLoadedAt())
+                .endObject();
+    }
+
+    private void optimize(Map<String, String> params, JsonWriter json) throws IOException {
+        Map<String, Integer> portfolio = holdings(params);
+        double riskFreeRate = doubleParam(params, "rf", 0.02);
+        OptimizationMethod method = params.containsKey("method")
+                ? OptimizationMethod.valueOf(params.get("method").toUpperCase())
+                : OptimizationMethod.NELDER_MEAD;
+
+        PortfolioOptimizer optimizer = new PortfolioOptimizer();
+        ReturnStatistics statistics = optimizer.computeStatistics(priceStore.getClosePrices(portfolio.keySet()));
+        OptimizationResult result = optimizer.run(statistics, riskFreeRate, method, Boolean.parseBoolean(params.get("trace")));
+        Map<String, Double> optimizedWeights = result.getWeights();
+        Map<String, Double> userWeights = weights(notionals(portfolio));
+
+        json.beginObject()
+                .name("riskFreeRate").value(riskFreeRate)
+                .name("method").value(method.name())
+                .name("weights").numberMap(optimizedWeights)
+                .name("userVolatility").value(RiskDecomposition.compute(statistics, userWeights).getVolatility())
+                .name("optimizedVolatility").value(RiskDecomposition.compute(statistics, optimizedWeights).getVolatility())
+                .name("converged").value(result.isConverged())
+                .name("leveraged").value(result.isLeveraged())
+                .name("iterations").value(result.getIterations())
+                .name("evaluations").value(result.getEvaluations())
+                .name("maxEvaluations").value(result.getMaxEvaluations())
+                .name("wallTimeMs").value(result.getWallTimeMillis())
+                .name("sharpe").value(result.getSharpeRatio());
+        if (result.getTrace() != null) {
+            json.name("trace").beginArray();
+            for (double value : result.getTrace()) json.value(value);
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private void betas(Map<String, String> params, JsonWriter json) throws IOException {
+        Map<String, Integer> portfolio = holdings(params);
+        RiskMgmtPanel riskAnalytics = new RiskMgmtPanel(null); // analytics only, no UI
+        Map<String, Double> betas = riskAnalytics.computeBetas(priceStore.getClosePrices(portfolio.keySet()), priceStore.getSpxData());
+
+        json.beginObject()
+                .name("betas").numberMap(betas)
+                .name("delta").value(riskAnalytics.computeDelta(notionals(portfolio), betas))
+                .endObject();
+    }
+
+    // Parametric (normal), historical (empirical quantile) and beta (SPX delta) VaR, as positive losses
+    private void valueAtRisk(Map<String, String> params, JsonWriter json) throws IOException {
+        Map<String, Integer> portfolio = holdings(params);
+        double confidence = doubleParam(params, "confidence", 0.99);
+        double horizon = doubleParam(params, "horizon", 1);
+        int lookback = (int) doubleParam(params, "lookback", 756);
+        if (confidence <= 0.5 || confidence >= 1.0) {
+            throw new IllegalArgumentException("confidence must be between 0.5 and 1");
+        }
+        double z = new NormalDistribution().inverseCumulativeProbability(confidence);
+
+        Map<String, PriceSeries> stockDataMap = priceStore.getClosePrices(portfolio.keySet());
+        Map<String, Double> notionals = notionals(portfolio);
+        double notional = priceStore.getSnapshot().getNotional(portfolio);
+
+        // Today's holdings revalued over the last lookback trading days
+        AlignedPrices prices = AlignedPrices.fromPriceSeries(stockDataMap);
+        int end = prices.numDays();
+        int start = Math.max(0, end - lookback - 1);
+        double[] quantities = new double[prices.numSymbols()];
+        for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
+            quantities[prices.indexOf(entry.getKey())] = entry.getValue();
+        }
+        BacktestResult history = new BacktestEngine().run(prices, quantities, start, end);
+
+        // Parametric: normal daily returns with the historical volatility
+        double dailyVolatility = history.getVolatility() / Math.sqrt(252);
+        double parametricVaR = z * dailyVolatility * Math.sqrt(horizon) * notional;
+
+        // Historical: empirical quantile of the daily losses
+        double[] returns = history.getReturns();
+        double[] losses = new double[Math.max(0, returns.length - 1)];
+        for (int d = 1; d < returns.length; d++) {
+            losses[d - 1] = -returns[d];
+        }
+        Arrays.sort(losses);
+        double historicalVaR = losses.length == 0 ? Double.NaN
+                : losses[Math.min(losses.length - 1, (int) Math.ceil(confidence * losses.length) - 1)] * Math.sqrt(horizon) * notional;
+
+        // Beta: SPX delta times the SPX daily volatility
+        RiskMgmtPanel riskAnalytics = new RiskMgmtPanel(null);
+        double delta = riskAnalytics.computeDelta(notionals, riskAnalytics.computeBetas(stockDataMap, priceStore.getSpxData()));
+        double spxDailyVolatility = HedgeOptimizer.estimateVolatility(priceStore.getSpxData(), lookback) / Math.sqrt(252);
+        double betaVaR = z * Math.abs(delta) * spxDailyVolatility * Math.sqrt(horizon);
+
+        json.beginObject()
+                .name("confidence").value(confidence)
+                .name("horizonDays").value(horizon)
+                .name("notional").value(notional)
+                .name("parametric").value(parametricVaR)
+                .name("historical").value(historicalVaR)
+                .name("beta").value(betaVaR)
+                .endObject();
+    }
+
+    private void backtest(Map<String, String> params, JsonWriter json) throws IOException {
+        Map<String, Integer> portfolio = holdings(params);
+        AlignedPrices prices = AlignedPrices.fromPriceSeries(priceStore.getClosePrices(portfolio.keySet()));
+        int[] days = prices.getDays();
+        LocalDate from = params.containsKey("from") ? LocalDate.parse(params.get("from")) : EpochDays.toLocalDate(days[0]);
+        LocalDate to = params.containsKey("to") ? LocalDate.parse(params.get("to")) : EpochDays.toLocalDate(days[days.length - 1]);
+        BacktestResult result = new BacktestEngine().run(prices, portfolio, from, to);
+
+        json.beginObject()
+                .name("days").value(result.size())
+                .name("totalReturn").value(result.getTotalReturn())
+                .name("volatility").value(result.getVolatility())
+                .name("maxDrawdown").value(result.getMaxDrawdown());
+        if (Boolean.parseBoolean(params.get("series"))) {
+            json.name("series").beginArray();
+            for (int d = 0; d < result.size(); d++) {
+                json.beginArray().value(EpochDays.toLocalDate(result.getDays()[d]).toString()).value(result.getValues()[d]).endArray();
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+}
@@ -0,0 +1,5 @@
+public interface AnalyticsTask<T> {
+
+    // Runs on a background thread; must not touch Swing components
+    T run(TaskContext context) throws Exception;
+}
@@ -0,0 +1,205 @@
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.AbstractXYItemRenderer;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+// XYDataset over primitive arrays: no per-point objects, no change events while filling.
+// The renderer only sees an LTTB-downsampled view of the visible range, about one point per pixel,
+// which is recomputed when the domain axis is zoomed or the chart is resized.
+// Axis auto-ranging still uses the full data (DomainInfo/RangeInfo).
+public class ArrayXYDataset extends AbstractXYDataset implements DomainInfo, RangeInfo {
+
+    private static final int DEFAULT_THRESHOLD = 1000; // points per series before the chart is laid out
+
+    private final List<String> seriesKeys = new ArrayList<>();
+    private final List<long[]> xValues = new ArrayList<>();   // ascending
+    private final List<double[]> yValues = new ArrayList<>();
+    private final List<int[]> visible = new ArrayList<>();    // indices handed to the renderer
+
+    private double visibleFrom = Double.NaN;
+    private double visibleTo = Double.NaN;
+    private int visibleThreshold = -1;
+
+    // x must be ascending and the same length as y; the arrays are not copied
+    public void addSeries(String key, long[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Series " + key + " has " + x.length + " x values but " + y.length + " y values");
+        }
+        seriesKeys.add(key);
+        xValues.add(x);
+        yValues.add(y);
+        visible.add(Lttb.downsample(x, y, 0, x.length, DEFAULT_THRESHOLD));
+        visibleThreshold = -1; // force the next resample to include the new series
+        fireDatasetChanged();
+    }
+
+    // Resample every series to about threshold points over [fromX, toX]; must run on the EDT
+    public void resample(double fromX, double toX, int threshold) {
+        if (fromX == visibleFrom && toX == visibleTo && threshold == visibleThreshold) {
+            return;
+        }
+        visibleFrom = fromX;
+        visibleTo = toX;
+        visibleThreshold = threshold;
+
+        for (int s = 0; s < seriesKeys.size(); s++) {
+            long[] x = xValues.get(s);
+            // Keep one point beyond each edge so lines run to the border of the plot
+            int from = Math.max(0, lowerIndex(x, fromX) - 1);
+            int to = Math.min(x.length, lowerIndex(x, toX) + 1);
+            visible.set(s, Lttb.downsample(x, yValues.get(s), from, to, threshold));
+        }
+        fireDatasetChanged();
+    }
+
+    // Keep the view downsampled to the chart's width as it is zoomed, panned or resized
+    public void attachTo(ChartPanel chartPanel) {
+        XYPlot plot = chartPanel.getChart().getXYPlot();
+        if (plot.getRenderer() instanceof AbstractXYItemRenderer) {
+            // Otherwise the renderer derives the auto range from the downsampled points instead of DomainInfo/RangeInfo
+            ((AbstractXYItemRenderer) plot.getRenderer()).setDataBoundsIncludesVisibleSeriesOnly(false);
+        }
+        ValueAxis domainAxis = plot.getDomainAxis();
+        AxisChangeListener zoomListener = event -> resampleFor(chartPanel, domainAxis);
+        domainAxis.addChangeListener(zoomListener);
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                if (chartPanel.getChart() == null || chartPanel.getChart().getXYPlot().getDataset() != ArrayXYDataset.this) {
+                    // The panel shows another chart now
+                    chartPanel.removeComponentListener(this);
+                    return;
+                }
+                resampleFor(chartPanel, domainAxis);
+            }
+        });
+        resampleFor(chartPanel, domainAxis);
+    }
+
+    private void resampleFor(ChartPanel chartPanel, ValueAxis domainAxis) {
+        int width = chartPanel.getWidth();
+        resample(domainAxis.getLowerBound(), domainAxis.getUpperBound(), width > 0 ? width : DEFAULT_THRESHOLD);
+    }
+
+    // First index with x >= value
+    private static int lowerIndex(long[] x, double value) {
+        int low = 0;
+        int high = x.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int getFullItemCount(int series) {
+        return xValues.get(series).length;
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return seriesKeys.size();
+    }
+
+    @Override
+    public Comparable<String> getSeriesKey(int series) {
+        return seriesKeys.get(series);
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        return visible.get(series).length;
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        return xValues.get(series)[visible.get(series)[item]];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        return yValues.get(series)[visible.get(series)[item]];
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return getYValue(series, item);
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval) {
+        double lower = Double.NaN;
+        for (long[] x : xValues) {
+            if (x.length > 0 && !(x[0] >= lower)) lower = x[0];
+        }
+        return lower;
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval) {
+        double upper = Double.NaN;
+        for (long[] x : xValues) {
+            if (x.length > 0 && !(x[x.length - 1] <= upper)) upper = x[x.length - 1];
+        }
+        return upper;
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval) {
+        double lower = getDomainLowerBound(includeInterval);
+        return Double.isNaN(lower) ? null : new Range(lower, getDomainUpperBound(includeInterval));
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval) {
+        double lower = Double.NaN;
+        for (double[] y : yValues) {
+            for (double value : y) {
+                if (!Double.isNaN(value) && !(value >= lower)) lower = value;
+            }
+        }
+        return lower;
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval) {
+        double upper = Double.NaN;
+        for (double[] y : yValues) {
+            for (double value : y) {
+                if (!Double.isNaN(value) && !(value <= upper)) upper = value;
+            }
+        }
+        return upper;
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval) {
+        double lower = getRangeLowerBound(includeInterval);
+        return Double.isNaN(lower) ? null : new Range(lower, getRangeUpperBound(includeInterval));
+    }
+}
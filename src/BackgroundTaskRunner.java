@@ -0,0 +1,188 @@
+import javax.swing.*;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Runs UI actions (Optimize, Compute Risk, charts...) off the EDT on a bounded pool.
+// At most one task runs per key: re-submitting the same inputs joins the running task,
+// different inputs cancel it. Results and progress are delivered on the EDT.
+public class BackgroundTaskRunner {
+
+    private static final int POOL_SIZE = 2;
+    private static final int QUEUE_SIZE = 16;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, AnalyticsWorker<?>> runningTasks = new HashMap<>(); // accessed on the EDT only
+
+    public BackgroundTaskRunner() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "analytics-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Must be called on the EDT. Returns false if the request was coalesced into a running task.
+    public <T> boolean submit(String key, Object inputs, JProgressBar progressBar, Component parent,
+                              AnalyticsTask<T> task, Consumer<T> onSuccess) {
+        AnalyticsWorker<?> running = runningTasks.get(key);
+        if (running != null && !running.isDone()) {
+            if (Objects.equals(running.inputs, inputs)) {
+                return false; // Duplicate request, the running task will deliver the same result
+            }
+            running.cancel(true);
+        }
+
+        AnalyticsWorker<T> worker = new AnalyticsWorker<>(key, inputs, progressBar, parent, task, onSuccess);
+        try {
+            executor.execute(worker);
+        } catch (RejectedExecutionException e) {
+            JOptionPane.showMessageDialog(parent, "Too many background tasks, please try again.", "Busy", JOptionPane.WARNING_MESSAGE);
+            return false;
+        }
+        runningTasks.put(key, worker);
+        if (progressBar != null) {
+            progressBar.setIndeterminate(true);
+            progressBar.setString("Working...");
+        }
+        return true;
+    }
+
+    // Must be called on the EDT
+    public void cancel(String key) {
+        AnalyticsWorker<?> running = runningTasks.remove(key);
+        if (running != null) {
+            running.cancel(true);
+            releaseProgressBar(running);
+        }
+    }
+
+    // Must be called on the EDT, e.g. when the portfolio changes
+    public void cancelAll() {
+        List<AnalyticsWorker<?>> cancelled = new ArrayList<>(runningTasks.values());
+        runningTasks.clear();
+        for (AnalyticsWorker<?> running : cancelled) {
+            running.cancel(true);
+            releaseProgressBar(running);
+        }
+    }
+
+    // A cancelled worker is no longer in runningTasks, so its done() leaves the bar alone; reset it here
+    // unless another running task shows its progress on the same bar
+    private void releaseProgressBar(AnalyticsWorker<?> cancelled) {
+        for (AnalyticsWorker<?> running : runningTasks.values()) {
+            if (running.progressBar == cancelled.progressBar) return;
+        }
+        cancelled.resetProgressBar();
+    }
+
+    public boolean isRunning(String key) {
+        AnalyticsWorker<?> running = runningTasks.get(key);
+        return running != null && !running.isDone();
+    }
+
+    private static class ProgressUpdate {
+        final int percent;
+        final String message;
+
+        ProgressUpdate(int percent, String message) {
+            this.percent = percent;
+            this.message = message;
+        }
+    }
+
+    private class AnalyticsWorker<T> extends SwingWorker<T, ProgressUpdate> implements TaskContext {
+
+        private final String key;
+        private final Object inputs;
+        private final JProgressBar progressBar;
+        private final Component parent;
+        private final AnalyticsTask<T> task;
+        private final Consumer<T> onSuccess;
+
+        AnalyticsWorker(String key, Object inputs, JProgressBar progressBar, Component parent, AnalyticsTask<T> task, Consumer<T> onSuccess) {
+            this.key = key;
+            this.inputs = inputs;
+            this.progressBar = progressBar;
+            this.parent = parent;
+            this.task = task;
+            this.onSuccess = onSuccess;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            try (Metrics.Stopwatch ignored = Metrics.time("task." + key);
+                 QueryTracer.Action action = QueryTracer.action(key)) {
+                return task.run(this);
+            }
+        }
+
+        @Override
+        public void setProgress(int percent, String message) {
+            publish(new ProgressUpdate(percent, message));
+        }
+
+        @Override
+        protected void process(List<ProgressUpdate> chunks) {
+            if (progressBar == null || isCancelled()) return;
+            ProgressUpdate latest = chunks.get(chunks.size() - 1);
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(latest.percent);
+            progressBar.setString(latest.message);
+        }
+
+        @Override
+        protected void done() {
+            // A newer task for the same key owns the progress bar now
+            boolean current = runningTasks.get(key) == this;
+            if (current) {
+                runningTasks.remove(key);
+                resetProgressBar();
+            }
+            if (isCancelled()) {
+                Metrics.counter("task." + key + ".cancelled").increment();
+                return;
+            }
+
+            try {
+                T result = get();
+                if (current) {
+                    onSuccess.accept(result);
+                }
+            } catch (InterruptedException | CancellationException e) {
+                // Cancelled while finishing, nothing to publish
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CancellationException) return;
+                Metrics.counter("task." + key + ".failed").increment();
+                cause.printStackTrace();
+                if (!current) return; // superseded, the user is no longer waiting for this result
+                String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                JOptionPane.showMessageDialog(parent, message, "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+
+        private void resetProgressBar() {
+            if (progressBar != null) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue(0);
+                progressBar.setString("");
+            }
+        }
+    }
+}
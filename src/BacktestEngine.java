@@ -0,0 +1,56 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+// Values fixed-quantity portfolios over aligned trading-day arrays
+public class BacktestEngine {
+
+    public BacktestResult run(AlignedPrices prices, Map<String, ? extends Number> quantities, LocalDate fromDate, LocalDate toDate) {
+        double[] quantityArray = new double[prices.numSymbols()];
+        for (Map.Entry<String, ? extends Number> entry : quantities.entrySet()) {
+            int index = prices.indexOf(entry.getKey());
+            if (index >= 0 && entry.getValue() != null) {
+                quantityArray[index] = entry.getValue().doubleValue();
+            }
+        }
+        return run(prices, quantityArray, prices.startIndex(EpochDays.of(fromDate)), prices.endIndex(EpochDays.of(toDate)));
+    }
+
+    // Value the portfolio on days [start, end), quantities aligned with prices.getStockSymbols()
+    public BacktestResult run(AlignedPrices prices, double[] quantities, int start, int end) {
+        int numDays = Math.max(0, end - start);
+        double[] values = new double[numDays];
+
+        // Accumulate one stock at a time so each price row is read sequentially
+        for (int s = 0; s < quantities.length; s++) {
+            double quantity = quantities[s];
+            if (quantity == 0) continue;
+            double[] closes = prices.getCloses(s);
+            for (int d = 0; d < numDays; d++) {
+                double price = closes[start + d];
+                if (price == price) { // skip NaN (not yet listed)
+                    values[d] += quantity * price;
+                }
+            }
+        }
+
+        return summarize(Arrays.copyOfRange(prices.getDays(), start, start + numDays), values);
+    }
+
+    // Daily returns and drawdowns of a value series in one pass
+    public static BacktestResult summarize(int[] days, double[] values) {
+        int numDays = values.length;
+        double[] returns = new double[numDays];
+        double[] drawdowns = new double[numDays];
+        double peak = 0.0;
+        for (int d = 0; d < numDays; d++) {
+            double value = values[d];
+            if (d > 0 && values[d - 1] > 0) {
+                returns[d] = value / values[d - 1] - 1.0;
+            }
+            if (value > peak) peak = value;
+            drawdowns[d] = peak > 0 ? value / peak - 1.0 : 0.0;
+        }
+        return new BacktestResult(days, values, returns, drawdowns);
+    }
+}
@@ -0,0 +1,78 @@
+public class BacktestResult {
+
+    private final int[] days;         // trading days (epoch days)
+    private final double[] values;    // portfolio value per trading day
+    private final double[] returns;   // daily simple returns, 0 on the first day
+    private final double[] drawdowns; // value / running peak - 1, always <= 0
+
+    public BacktestResult(int[] days, double[] values, double[] returns, double[] drawdowns) {
+        this.days = days;
+        this.values = values;
+        this.returns = returns;
+        this.drawdowns = drawdowns;
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    public int[] getDays() {
+        return days;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public double[] getReturns() {
+        return returns;
+    }
+
+    public double[] getDrawdowns() {
+        return drawdowns;
+    }
+
+    public double getMaxDrawdown() {
+        double maxDrawdown = 0.0;
+        for (double drawdown : drawdowns) {
+            maxDrawdown = Math.min(maxDrawdown, drawdown);
+        }
+        return maxDrawdown;
+    }
+
+    public double getMinValue() {
+        double min = Double.MAX_VALUE;
+        for (double value : values) {
+            if (value > 0) min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    public double getMaxValue() {
+        double max = 0.0;
+        for (double value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    public double getTotalReturn() {
+        if (values.length == 0 || values[0] <= 0) return 0.0;
+        return values[values.length - 1] / values[0] - 1.0;
+    }
+
+    // Annualized volatility of the daily returns
+    public double getVolatility() {
+        double mean = 0.0;
+        for (int d = 1; d < returns.length; d++) {
+            mean += returns[d];
+        }
+        mean /= Math.max(1, returns.length - 1);
+        double variance = 0.0;
+        for (int d = 1; d < returns.length; d++) {
+            variance += (returns[d] - mean) * (returns[d] - mean);
+        }
+        variance /= Math.max(1, returns.length - 2);
+        return Math.sqrt(variance * 252);
+    }
+}
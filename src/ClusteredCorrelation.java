@@ -0,0 +1,19 @@
+// A correlation matrix and its dendrogram leaf order, handed from the background task to the heatmap
+public class ClusteredCorrelation {
+
+    private final CorrelationMatrix matrix;
+    private final int[] clusteredOrder;
+
+    public ClusteredCorrelation(CorrelationMatrix matrix, int[] clusteredOrder) {
+        this.matrix = matrix;
+        this.clusteredOrder = clusteredOrder;
+    }
+
+    public CorrelationMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int[] getClusteredOrder() {
+        return clusteredOrder;
+    }
+}
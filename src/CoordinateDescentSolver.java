@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+// Long-only minimum-variance and equal-risk-contribution portfolios by cyclic coordinate descent.
+//
+// Both problems are solved on unnormalized weights y and rescaled to sum to 1 at the end:
+//   minimum variance:  min 1/2 y'Sy - sum(y),           y >= 0   (same KKT point as min w'Sw, sum(w) = 1, w >= 0)
+//   risk contribution: min 1/2 y'Sy - sum(b_i log y_i), y > 0    (Griveau-Billion, Richard, Roncalli 2013)
+// Each coordinate has a closed-form minimizer given (Sy)_i, and S*y is kept up to date after every step
+// by adding delta * S[i], so a step costs O(n) and a sweep over all coordinates O(n^2). A sweep stops
+// the search once no weight moved by more than the tolerance, relative to the largest weight.
+public class CoordinateDescentSolver {
+
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    public static final int DEFAULT_MAX_SWEEPS = 10_000;
+
+    private final double[][] covariance;
+    private final double tolerance;
+    private final int maxSweeps;
+    private int sweeps;
+    private boolean converged;
+
+    public CoordinateDescentSolver(double[][] covariance) {
+        this(covariance, DEFAULT_TOLERANCE, DEFAULT_MAX_SWEEPS);
+    }
+
+    public CoordinateDescentSolver(double[][] covariance, double tolerance, int maxSweeps) {
+        this.covariance = covariance;
+        this.tolerance = tolerance;
+        this.maxSweeps = maxSweeps;
+    }
+
+    // Global minimum-variance weights (long only, summing to 1)
+    public double[] minimumVariance() {
+        int n = covariance.length;
+        double[] y = new double[n];
+        double[] sy = new double[n];
+        // Start from inverse-variance weights, the optimum when the stocks are uncorrelated
+        for (int i = 0; i < n; i++) {
+            y[i] = covariance[i][i] > 0 ? 1.0 / covariance[i][i] : 0.0;
+        }
+        multiply(y, sy);
+
+        return solve(y, sy, i -> {
+            double variance = covariance[i][i];
+            if (variance <= 0) return 0.0;
+            double others = sy[i] - variance * y[i]; // sum over j != i of S_ij y_j
+            return Math.max(0.0, (1.0 - others) / variance);
+        });
+    }
+
+    // Equal-risk-contribution weights: every stock contributes the same share of portfolio variance
+    public double[] equalRiskContribution() {
+        double[] budgets = new double[covariance.length];
+        Arrays.fill(budgets, 1.0 / covariance.length);
+        return riskBudget(budgets);
+    }
+
+    // Weights whose risk contributions w_i (Sw)_i are proportional to the given positive budgets
+    public double[] riskBudget(double[] budgets) {
+        int n = covariance.length;
+        double[] y = new double[n];
+        double[] sy = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = covariance[i][i] > 0 ? 1.0 / Math.sqrt(covariance[i][i]) / n : 0.0;
+        }
+        multiply(y, sy);
+
+        return solve(y, sy, i -> {
+            double variance = covariance[i][i];
+            if (variance <= 0) return 0.0;
+            double others = sy[i] - variance * y[i];
+            // Positive root of variance * y^2 + others * y - b_i = 0
+            return (-others + Math.sqrt(others * others + 4.0 * variance * budgets[i])) / (2.0 * variance);
+        });
+    }
+
+    // Cyclic sweeps of coordinate updates with incremental S*y, then normalization
+    private double[] solve(double[] y, double[] sy, CoordinateUpdate update) {
+        int n = y.length;
+        sweeps = 0;
+        converged = n == 0;
+        while (!converged && sweeps < maxSweeps) {
+            sweeps++;
+            double largestMove = 0.0;
+            double largestWeight = 0.0;
+            for (int i = 0; i < n; i++) {
+                double delta = update.argmin(i) - y[i];
+                if (delta != 0.0) {
+                    y[i] += delta;
+                    double[] column = covariance[i]; // symmetric, so row i is column i
+                    for (int j = 0; j < n; j++) {
+                        sy[j] += delta * column[j];
+                    }
+                }
+                largestMove = Math.max(largestMove, Math.abs(delta));
+                largestWeight = Math.max(largestWeight, y[i]);
+            }
+            converged = largestMove <= tolerance * largestWeight;
+        }
+
+        double total = 0.0;
+        for (double value : y) total += value;
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = total > 0 ? y[i] / total : 0.0;
+        }
+        return weights;
+    }
+
+    private void multiply(double[] y, double[] sy) {
+        for (int i = 0; i < y.length; i++) {
+            double sum = 0.0;
+            double[] row = covariance[i];
+            for (int j = 0; j < y.length; j++) {
+                sum += row[j] * y[j];
+            }
+            sy[i] = sum;
+        }
+    }
+
+    // Sweeps of the last solve
+    public int getSweeps() {
+        return sweeps;
+    }
+
+    public int getMaxSweeps() {
+        return maxSweeps;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    private interface CoordinateUpdate {
+        double argmin(int i);
+    }
+}
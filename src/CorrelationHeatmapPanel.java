@@ -0,0 +1,157 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+
+// Heatmap of a CorrelationMatrix: blue (-1) through white (0) to red (+1).
+//
+// The matrix is rendered once into an n x n image (one pixel per pair) and painting only scales that
+// image, so zooming (mouse wheel) and panning (drag) stay smooth for thousands of symbols. The tooltip
+// shows the pair under the mouse. Switching between the original and clustered order re-renders the
+// image from the same matrix.
+public class CorrelationHeatmapPanel extends JPanel {
+
+    private static final double MAX_CELL_PIXELS = 40.0;
+
+    private CorrelationMatrix matrix;
+    private int[] naturalOrder;
+    private int[] clusteredOrder;
+    private int[] order;          // order[row] = matrix index shown in that row (and column)
+    private BufferedImage image;
+
+    private double cellPixels = 1.0;
+    private double offsetX;
+    private double offsetY;
+    private Point dragStart;
+
+    public CorrelationHeatmapPanel() {
+        setBackground(Color.WHITE);
+        setToolTipText("");
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null) return;
+                offsetX += e.getX() - dragStart.x;
+                offsetY += e.getY() - dragStart.y;
+                dragStart = e.getPoint();
+                repaint();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (image == null) return;
+                double factor = Math.pow(1.25, -e.getPreciseWheelRotation());
+                double newCellPixels = Math.max(fitCellPixels() / 2, Math.min(MAX_CELL_PIXELS, cellPixels * factor));
+                // Keep the cell under the mouse where it is
+                offsetX = e.getX() - (e.getX() - offsetX) * newCellPixels / cellPixels;
+                offsetY = e.getY() - (e.getY() - offsetY) * newCellPixels / cellPixels;
+                cellPixels = newCellPixels;
+                repaint();
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        addMouseWheelListener(mouseHandler);
+    }
+
+    // Shows a new matrix fitted to the panel; clusteredOrder is the leaf order of its dendrogram
+    public void setMatrix(CorrelationMatrix matrix, int[] clusteredOrder, boolean clustered) {
+        this.matrix = matrix;
+        this.clusteredOrder = clusteredOrder;
+        this.naturalOrder = new int[matrix.size()];
+        for (int i = 0; i < naturalOrder.length; i++) {
+            naturalOrder[i] = i;
+        }
+        this.order = clustered ? clusteredOrder : naturalOrder;
+        render();
+        resetView();
+    }
+
+    public void setClustered(boolean clustered) {
+        if (matrix == null) return;
+        int[] newOrder = clustered ? clusteredOrder : naturalOrder;
+        if (newOrder != order) {
+            order = newOrder;
+            render();
+            repaint();
+        }
+    }
+
+    public void resetView() {
+        cellPixels = fitCellPixels();
+        offsetX = 0;
+        offsetY = 0;
+        repaint();
+    }
+
+    private double fitCellPixels() {
+        if (matrix == null || matrix.size() == 0) return 1.0;
+        int side = Math.min(getWidth(), getHeight());
+        return Math.min(MAX_CELL_PIXELS, Math.max(1, side) / (double) matrix.size());
+    }
+
+    private void render() {
+        int n = matrix.size();
+        if (n == 0) {
+            image = null;
+            return;
+        }
+        int[] pixels = new int[n * n];
+        double[] values = matrix.getValues();
+        for (int row = 0; row < n; row++) {
+            int i = order[row];
+            for (int column = 0; column < n; column++) {
+                pixels[row * n + column] = colorOf(values[i * n + order[column]]);
+            }
+        }
+        image = new BufferedImage(n, n, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, n, n, pixels, 0, n);
+    }
+
+    // Diverging scale: white at 0, saturating to blue at -1 and red at +1
+    private static int colorOf(double correlation) {
+        double t = Math.max(-1.0, Math.min(1.0, correlation));
+        int fade = (int) Math.round(255 * (1.0 - Math.abs(t)));
+        return t >= 0 ? (255 << 16) | (fade << 8) | fade : (fade << 16) | (fade << 8) | 255;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (image == null) {
+            g.setColor(Color.GRAY);
+            g.drawString("Compute a correlation matrix to show it here.", 20, 30);
+            return;
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        int side = (int) Math.round(image.getWidth() * cellPixels);
+        g2.drawImage(image, (int) Math.round(offsetX), (int) Math.round(offsetY), side, side, null);
+        g2.dispose();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        if (image == null) return null;
+        int row = (int) Math.floor((e.getY() - offsetY) / cellPixels);
+        int column = (int) Math.floor((e.getX() - offsetX) / cellPixels);
+        int n = matrix.size();
+        if (row < 0 || column < 0 || row >= n || column >= n) return null;
+        int i = order[row];
+        int j = order[column];
+        return String.format("%s / %s: %.3f", matrix.getStockSymbols().get(i), matrix.getStockSymbols().get(j), matrix.get(i, j));
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Pearson correlation of daily returns, stored as one row-major n x n array.
+//
+// Each return series is standardized once (zero mean, unit norm), so every correlation is a plain dot
+// product. The upper triangle is split into TILE x TILE blocks, each small enough for both blocks of
+// standardized rows to stay in cache while it is computed, and the blocks run on a ForkJoin pool.
+public class CorrelationMatrix {
+
+    private static final int TILE = 32; // rows per block; 2 x 32 rows x 756 days x 8 bytes is under 400 KB
+
+    private final List<String> stockSymbols;
+    private final double[] values; // [i * n + j]
+
+    private CorrelationMatrix(List<String> stockSymbols, double[] values) {
+        this.stockSymbols = Collections.unmodifiableList(stockSymbols);
+        this.values = values;
+    }
+
+    // Correlations over the lookback window of days strictly before endIndex, for the stocks listed
+    // for the whole window
+    public static CorrelationMatrix compute(AlignedPrices prices, int endIndex, int lookback, ForkJoinPool pool) {
+        int start = Math.max(0, endIndex - lookback);
+        int returnsSize = endIndex - start - 1;
+        if (returnsSize < 2) {
+            throw new IllegalArgumentException("Not enough history before the estimation date.");
+        }
+        List<String> stockSymbols = new ArrayList<>();
+        try (OffHeapArena arena = OffHeapArena.open()) {
+            OffHeapMatrix returns = PortfolioOptimizer.windowReturns(prices, start, returnsSize, stockSymbols, arena);
+            return compute(returns, stockSymbols, pool);
+        }
+    }
+
+    public static CorrelationMatrix compute(OffHeapMatrix returns, List<String> stockSymbols, ForkJoinPool pool) {
+        int n = returns.rows();
+        double[][] standardized = new double[n][];
+        pool.submit(() -> java.util.stream.IntStream.range(0, n).parallel()
+                .forEach(i -> standardized[i] = standardize(returns, i))).join();
+
+        double[] values = new double[n * n];
+        List<ForkJoinTask<?>> tiles = new ArrayList<>();
+        for (int rowStart = 0; rowStart < n; rowStart += TILE) {
+            for (int columnStart = rowStart; columnStart < n; columnStart += TILE) {
+                int i0 = rowStart;
+                int j0 = columnStart;
+                tiles.add(pool.submit(() -> computeTile(standardized, values, n, i0, j0)));
+            }
+        }
+        for (ForkJoinTask<?> tile : tiles) {
+            tile.join();
+        }
+        return new CorrelationMatrix(stockSymbols, values);
+    }
+
+    // Block [i0, i0 + TILE) x [j0, j0 + TILE) of the upper triangle, mirrored into the lower one
+    private static void computeTile(double[][] standardized, double[] values, int n, int i0, int j0) {
+        int iEnd = Math.min(i0 + TILE, n);
+        int jEnd = Math.min(j0 + TILE, n);
+        for (int i = i0; i < iEnd; i++) {
+            double[] x = standardized[i];
+            for (int j = Math.max(j0, i); j < jEnd; j++) {
+                double[] y = standardized[j];
+                double dot = 0.0;
+                for (int d = 0; d < x.length; d++) {
+                    dot += x[d] * y[d];
+                }
+                double correlation = i == j ? 1.0 : Math.max(-1.0, Math.min(1.0, dot));
+                values[i * n + j] = correlation;
+                values[j * n + i] = correlation;
+            }
+        }
+    }
+
+    // Row of returns with zero mean and unit Euclidean norm; a flat series stays all zeros (no correlation
+    // with anything)
+    private static double[] standardize(OffHeapMatrix returns, int row) {
+        double[] standardized = returns.getRow(row);
+        double mean = 0.0;
+        for (double r : standardized) mean += r;
+        mean /= standardized.length;
+        double sumOfSquares = 0.0;
+        for (int d = 0; d < standardized.length; d++) {
+            standardized[d] -= mean;
+            sumOfSquares += standardized[d] * standardized[d];
+        }
+        double norm = Math.sqrt(sumOfSquares);
+        if (norm > 0) {
+            for (int d = 0; d < standardized.length; d++) {
+                standardized[d] /= norm;
+            }
+        }
+        return standardized;
+    }
+
+    public int size() {
+        return stockSymbols.size();
+    }
+
+    public List<String> getStockSymbols() {
+        return stockSymbols;
+    }
+
+    public double get(int i, int j) {
+        return values[i * stockSymbols.size() + j];
+    }
+
+    // Row-major values, shared; callers must not write to them
+    public double[] getValues() {
+        return values;
+    }
+
+    // Correlation distance sqrt((1 - rho) / 2), in [0, 1], row-major
+    public double[] toDistances() {
+        double[] distances = new double[values.length];
+        for (int k = 0; k < values.length; k++) {
+            distances[k] = Math.sqrt(Math.max(0.0, (1.0 - values[k]) / 2.0));
+        }
+        return distances;
+    }
+}
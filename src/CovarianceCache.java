@@ -0,0 +1,62 @@
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+// Statistics estimated from one AlignedPrices store, keyed by estimation window.
+// Runs that only differ in risk-free rate or solver share the same estimates.
+public class CovarianceCache {
+
+    private final AlignedPrices prices;
+    private final ConcurrentHashMap<Long, ReturnStatistics> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CorrelationMatrix> correlations = new ConcurrentHashMap<>();
+
+    public CovarianceCache(AlignedPrices prices) {
+        this.prices = prices;
+    }
+
+    // The previous cache if it was built for the same symbols (in any order), otherwise a new one over
+    // freshly loaded prices with the symbols in alphabetical order
+    public static CovarianceCache forSymbols(CovarianceCache previous, List<String> stockSymbols, StockDataService stockDataService) {
+        if (previous != null && previous.covers(stockSymbols)) {
+            Metrics.counter("correlation.cacheHits").increment();
+            return previous;
+        }
+        Metrics.counter("correlation.cacheMisses").increment();
+        AlignedPrices prices = AlignedPrices.fromPriceSeries(new TreeMap<>(stockDataService.getClosePrices(stockSymbols)));
+        if (prices.numSymbols() < 2) {
+            throw new IllegalStateException("At least two symbols with price history are needed.");
+        }
+        return new CovarianceCache(prices);
+    }
+
+    // True if the prices hold exactly these symbols
+    public boolean covers(Collection<String> stockSymbols) {
+        return new HashSet<>(prices.getStockSymbols()).equals(new HashSet<>(stockSymbols));
+    }
+
+    public ReturnStatistics get(int endIndex, int lookback) {
+        long key = ((long) endIndex << 32) | lookback;
+        return cache.computeIfAbsent(key, k -> new PortfolioOptimizer().computeStatistics(prices, endIndex, lookback));
+    }
+
+    // Correlation matrix of the same window, computed on the common pool
+    public CorrelationMatrix getCorrelation(int endIndex, int lookback) {
+        long key = ((long) endIndex << 32) | lookback;
+        return correlations.computeIfAbsent(key, k -> {
+            try (Metrics.Stopwatch ignored = Metrics.time("correlation.matrix")) {
+                return CorrelationMatrix.compute(prices, endIndex, lookback, ForkJoinPool.commonPool());
+            }
+        });
+    }
+
+    public AlignedPrices getPrices() {
+        return prices;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -1,22 +1,26 @@
 import java.sql.Connection;
-import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class DatabaseUtil {
 
+    // Database file, stocks.db in the working directory unless -Dstocks.db=<path> is given
+    public static String getDatabasePath() {
+        return System.getProperty("stocks.db", "stocks.db");
+    }
+
     public static Connection connect() {
+        return connect(getDatabasePath());
+    }
+
+    // Connection to a specific database file, e.g. one being generated. Statements are traced (see QueryTracer).
+    public static Connection connect(String databasePath) {
         // SQLite connection string
-        String url = "jdbc:sqlite:stocks.db";
+        String url = "jdbc:sqlite:" + databasePath;
         Connection conn = null;
         try {
-            conn = DriverManager.getConnection(url);
-            if (conn != null) {
-                DatabaseMetaData meta = conn.getMetaData();
-                System.out.println("The driver name is " + meta.getDriverName());
-                System.out.println("A new database has been created.");
-            }
+            conn = QueryTracer.wrap(DriverManager.getConnection(url));
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
@@ -24,6 +28,15 @@ public class DatabaseUtil {
     }
 
     public static void createStockDataTableIfNotExists() {
+        try (Connection conn = connect()) {
+            createStockDataTableIfNotExists(conn);
+            System.out.println("The stock_data table has been created or already exists.");
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    public static void createStockDataTableIfNotExists(Connection conn) throws SQLException {
         // SQL statement for creating the stock_data table
         String stockDataSql = "CREATE TABLE IF NOT EXISTS stock_data (\n"
                 + "    id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
@@ -37,17 +50,22 @@ public class DatabaseUtil {
                 + "    volume INTEGER\n"
                 + ");";
 
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             // Create the stock_data table
             stmt.execute(stockDataSql);
-            System.out.println("The stock_data table has been created or already exists.");
+        }
+    }
+
+    public static void createIndexDataTableIfNotExists() {
+        try (Connection conn = connect()) {
+            createIndexDataTableIfNotExists(conn);
+            System.out.println("The index_data table has been created or already exists.");
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
 
-    public static void createIndexDataTableIfNotExists() {
+    public static void createIndexDataTableIfNotExists(Connection conn) throws SQLException {
         // SQL statement for creating the index_data table
         String indexDataSql = "CREATE TABLE IF NOT EXISTS index_data (\n"
                 + "    id INTEGER PRIMARY KEY AUTOINCREMENT,\n"
@@ -55,13 +73,75 @@ public class DatabaseUtil {
                 + "    close REAL\n"
                 + ");";
 
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             // Create the index_data table
             stmt.execute(indexDataSql);
-            System.out.println("The index_data table has been created or already exists.");
+        }
+    }
+
+    public static void createSymbolCatalogTableIfNotExists() {
+        try (Connection conn = connect()) {
+            createSymbolCatalogTableIfNotExists(conn);
         } catch (SQLException e) {
             System.out.println(e.getMessage());
         }
     }
+
+    public static void createSymbolCatalogTableIfNotExists(Connection conn) throws SQLException {
+        // One row per symbol, maintained at ingest so the UI never scans stock_data for its symbol list
+        String symbolCatalogSql = "CREATE TABLE IF NOT EXISTS symbol_catalog (\n"
+                + "    stock_symbol TEXT PRIMARY KEY,\n"
+                + "    first_date TEXT,\n"
+                + "    last_date TEXT,\n"
+                + "    row_count INTEGER\n"
+                + ");";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(symbolCatalogSql);
+        }
+    }
+
+    public static void createSymbolStatsTableIfNotExists(Connection conn) throws SQLException {
+        // Screener statistics per symbol (see Screener); emptied by ingest and recomputed on the next load
+        String symbolStatsSql = "CREATE TABLE IF NOT EXISTS symbol_stats (\n"
+                + "    stock_symbol TEXT PRIMARY KEY,\n"
+                + "    last_date TEXT,\n"
+                + "    days INTEGER,\n"
+                + "    annual_return REAL,\n"
+                + "    annual_volatility REAL,\n"
+                + "    sharpe REAL,\n"
+                + "    beta REAL,\n"
+                + "    momentum REAL,\n"
+                + "    max_drawdown REAL,\n"
+                + "    avg_dollar_volume REAL\n"
+                + ");";
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(symbolStatsSql);
+        }
+    }
+
+    // Drops the screener statistics so they are recomputed from the newly ingested data
+    public static void invalidateSymbolStats(Connection conn) throws SQLException {
+        createSymbolStatsTableIfNotExists(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM symbol_stats");
+        }
+    }
+
+    public static void createStockDataIndexIfNotExists(Connection conn) throws SQLException {
+        // Serves the per-symbol price history and latest-price queries
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_stock_data_symbol_date ON stock_data(stock_symbol, date)");
+        }
+    }
+
+    // Rebuild the catalog from stock_data, for databases ingested before the catalog existed
+    public static void rebuildSymbolCatalog(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM symbol_catalog");
+            stmt.executeUpdate("INSERT INTO symbol_catalog(stock_symbol, first_date, last_date, row_count) "
+                    + "SELECT stock_symbol, MIN(date), MAX(date), COUNT(*) FROM stock_data GROUP BY stock_symbol");
+        }
+    }
 }
@@ -0,0 +1,61 @@
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+// Live table of the Metrics registry (p50/p99 of every timed hot path). Enabled with -Dportfolio.diagnostics=true.
+public class DiagnosticsPanel extends JPanel {
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final DefaultTableModel tableModel;
+
+    public static boolean isEnabledByProperty() {
+        return Boolean.getBoolean("portfolio.diagnostics");
+    }
+
+    public DiagnosticsPanel() {
+        super(new BorderLayout());
+        String[] columnNames = {"Metric", "Type", "Count", "Mean", "p50", "p99", "Max"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(tableModel);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(resetButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        // Only refresh while the tab is visible
+        new Timer(REFRESH_MILLIS, e -> {
+            if (isShowing()) refresh();
+        }).start();
+        refresh();
+    }
+
+    private void refresh() {
+        List<Metrics.MetricSnapshot> snapshots = Metrics.snapshot();
+        tableModel.setRowCount(0);
+        for (Metrics.MetricSnapshot snapshot : snapshots) {
+            boolean counter = snapshot.getType().equals("counter");
+            tableModel.addRow(new Object[]{
+                snapshot.getName(),
+                snapshot.getType(),
+                snapshot.getCount(),
+                counter ? "" : String.format("%.3f", snapshot.getMean()),
+                counter ? "" : String.format("%.3f", snapshot.getP50()),
+                counter ? "" : String.format("%.3f", snapshot.getP99()),
+                counter ? "" : String.format("%.3f", snapshot.getMax())
+            });
+        }
+    }
+}
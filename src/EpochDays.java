@@ -0,0 +1,115 @@
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// Dates as int days since 1970-01-01 (same numbering as LocalDate.toEpochDay).
+// The parsers read fixed-format strings digit by digit: no SimpleDateFormat, no Date, no allocation,
+// and safe to call from any thread.
+public final class EpochDays {
+
+    private EpochDays() {
+    }
+
+    // yyyy-MM-dd (stock_data); anything after the day, such as a time of day, is ignored
+    public static int parseIso(CharSequence text) {
+        if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new IllegalArgumentException("Expected yyyy-MM-dd: " + text);
+        }
+        return of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10), text);
+    }
+
+    // MM/dd/yyyy (index_data); month and day may also be written with a single digit
+    public static int parseUs(CharSequence text) {
+        int firstSlash = indexOf(text, '/', 0);
+        int secondSlash = firstSlash < 0 ? -1 : indexOf(text, '/', firstSlash + 1);
+        if (firstSlash < 1 || firstSlash > 2 || secondSlash - firstSlash < 2 || secondSlash - firstSlash > 3
+                || text.length() < secondSlash + 5) {
+            throw new IllegalArgumentException("Expected MM/dd/yyyy: " + text);
+        }
+        return of(digits(text, secondSlash + 1, secondSlash + 5), digits(text, 0, firstSlash),
+                digits(text, firstSlash + 1, secondSlash), text);
+    }
+
+    // Either of the two formats above
+    public static int parse(CharSequence text) {
+        return indexOf(text, '/', 0) >= 0 ? parseUs(text) : parseIso(text);
+    }
+
+    private static int indexOf(CharSequence text, char c, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid date: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int of(int year, int month, int day, CharSequence text) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return of(year, month, day);
+    }
+
+    // Days from civil date (proleptic Gregorian), valid for any year
+    public static int of(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // year * 12 + (month - 1), for grouping days into calendar months without allocating
+    public static int monthIndex(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    public static int of(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    // Local midnight of each day, for chart axes that plot java time values
+    public static long[] toEpochMillis(int[] epochDays) {
+        ZoneId zone = ZoneId.systemDefault();
+        long[] millis = new long[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            millis[i] = LocalDate.ofEpochDay(epochDays[i]).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return millis;
+    }
+}
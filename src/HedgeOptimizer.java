@@ -0,0 +1,125 @@
+
+public class HedgeOptimizer {
+
+    // Instantaneous SPX shocks the hedged portfolio must survive
+    private static final double[] DEFAULT_SCENARIOS = {-0.05, -0.10, -0.15, -0.20, -0.25, -0.30, -0.35, -0.40, -0.45, -0.50};
+    private static final double DEFAULT_HORIZON = 0.25; // scenarios play out over 3 months
+    private static final double MIN_PREMIUM = 0.05; // ignore options that would not trade
+
+    private final double[] scenarios;
+    private final double horizon;
+
+    public HedgeOptimizer() {
+        this(DEFAULT_SCENARIOS, DEFAULT_HORIZON);
+    }
+
+    public HedgeOptimizer(double[] scenarios, double horizon) {
+        this.scenarios = scenarios;
+        this.horizon = horizon;
+    }
+
+    // Search the strike x expiry put grid for the cheapest single-line package that keeps the
+    // beta-adjusted loss (portfolioDelta * move) within maxLoss under every scenario.
+    // Scenarios are evaluated at the hedge horizon, so options expiring before it are not eligible.
+    // Returns null if no hedge is needed, or if no point of the grid can cap the loss.
+    public OptionHedge findCheapestPutHedge(double portfolioDelta, double maxLoss, double spot, double rate, double volatility,
+                                            double[] strikes, double[] expiries) {
+        try (Metrics.Stopwatch ignored = Metrics.time("risk.hedgeSearch")) {
+            return searchPutHedge(portfolioDelta, maxLoss, spot, rate, volatility, strikes, expiries);
+        }
+    }
+
+    private OptionHedge searchPutHedge(double portfolioDelta, double maxLoss, double spot, double rate, double volatility,
+                                       double[] strikes, double[] expiries) {
+        boolean needsHedge = false;
+        for (double move : scenarios) {
+            if (-portfolioDelta * move > maxLoss) {
+                needsHedge = true;
+                break;
+            }
+        }
+        if (!needsHedge) {
+            return null;
+        }
+
+        OptionGrid grid = OptionPricer.priceGrid(spot, strikes, expiries, rate, volatility, true);
+        double[] price = grid.getPrice();
+        int size = grid.size();
+
+        // Remaining life of each expiry once the horizon has passed
+        double[] remaining = new double[expiries.length];
+        for (int t = 0; t < expiries.length; t++) {
+            remaining[t] = expiries[t] - horizon;
+        }
+
+        // Contracts needed at each grid point, taking the worst scenario
+        double[] requiredContracts = new double[size];
+        OptionGrid shocked = new OptionGrid(strikes, remaining, true);
+        double[] shockedPrice = shocked.getPrice();
+        for (double move : scenarios) {
+            double excessLoss = -portfolioDelta * move - maxLoss;
+            if (excessLoss <= 0) continue;
+
+            OptionPricer.priceGrid(shocked, spot * (1 + move), rate, volatility);
+            for (int i = 0; i < size; i++) {
+                double hedgePnL = (shockedPrice[i] - price[i]) * OptionHedge.CONTRACT_MULTIPLIER;
+                double contracts = hedgePnL > 0 ? Math.ceil(excessLoss / hedgePnL) : Double.POSITIVE_INFINITY;
+                if (contracts > requiredContracts[i]) {
+                    requiredContracts[i] = contracts;
+                }
+            }
+        }
+
+        // Pick the cheapest package
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            if (price[i] < MIN_PREMIUM || grid.expiryAt(i) < horizon) continue;
+            double cost = requiredContracts[i] * price[i];
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        return new OptionHedge(spot, grid.strikeAt(best), grid.expiryAt(best), (int) requiredContracts[best],
+                price[best], rate, volatility, horizon);
+    }
+
+    // Annualized volatility of the most recent daily SPX log returns
+    public static double estimateVolatility(PriceSeries spxData, int lookback) {
+        double[] closes = spxData.getCloses();
+        int start = Math.max(1, closes.length - lookback);
+        double[] returns = new double[Math.max(0, closes.length - start)];
+        int n = 0;
+        for (int i = start; i < closes.length; i++) {
+            double previous = closes[i - 1];
+            double current = closes[i];
+            if (previous > 0 && current > 0) {
+                returns[n++] = Math.log(current / previous);
+            }
+        }
+        if (n < 2) {
+            return 0.0;
+        }
+        double mean = 0.0;
+        for (int i = 0; i < n; i++) {
+            mean += returns[i];
+        }
+        mean /= n;
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            variance += (returns[i] - mean) * (returns[i] - mean);
+        }
+        variance /= n - 1;
+        return Math.sqrt(variance * 252);
+    }
+
+    // Most recent SPX close
+    public static double latestLevel(PriceSeries spxData) {
+        return spxData.getLatestClose();
+    }
+}
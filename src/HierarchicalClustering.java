@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+// Single-linkage agglomerative clustering of a distance matrix.
+//
+// Single linkage merges along the minimum spanning tree, so the tree is built with Prim's algorithm
+// (O(n^2) on a dense matrix) and its edges, sorted by length, are merged with a union-find.
+// getOrder() is the dendrogram's leaf order: similar items end up next to each other, which makes a
+// correlation matrix quasi-diagonal.
+public class HierarchicalClustering {
+
+    private final int size;
+    private final int[][] merges;  // merges[k] = {left, right}; ids < size are items, size + k is merge k
+    private final double[] heights;
+    private final int[] order;
+
+    private HierarchicalClustering(int size, int[][] merges, double[] heights) {
+        this.size = size;
+        this.merges = merges;
+        this.heights = heights;
+        this.order = leafOrder(size, merges);
+    }
+
+    // distances: row-major n x n, symmetric
+    public static HierarchicalClustering singleLinkage(double[] distances, int n) {
+        if (n == 0) {
+            return new HierarchicalClustering(0, new int[0][], new double[0]);
+        }
+
+        // Prim: grow the tree from item 0, tracking each outside item's closest distance to the tree
+        boolean[] inTree = new boolean[n];
+        double[] closest = new double[n];
+        int[] closestTo = new int[n];
+        Arrays.fill(closest, Double.POSITIVE_INFINITY);
+        double[] edgeLengths = new double[n - 1];
+        int[][] edgeEnds = new int[n - 1][];
+
+        int current = 0;
+        inTree[0] = true;
+        for (int e = 0; e < n - 1; e++) {
+            int next = -1;
+            int row = current * n;
+            for (int j = 0; j < n; j++) {
+                if (inTree[j]) continue;
+                double distance = distances[row + j];
+                if (distance < closest[j]) {
+                    closest[j] = distance;
+                    closestTo[j] = current;
+                }
+                if (next < 0 || closest[j] < closest[next]) {
+                    next = j;
+                }
+            }
+            inTree[next] = true;
+            edgeLengths[e] = closest[next];
+            edgeEnds[e] = new int[]{closestTo[next], next};
+            current = next;
+        }
+
+        // Merge the edges shortest first
+        Integer[] byLength = new Integer[n - 1];
+        for (int e = 0; e < n - 1; e++) byLength[e] = e;
+        Arrays.sort(byLength, (a, b) -> Double.compare(edgeLengths[a], edgeLengths[b]));
+
+        int[] parent = new int[n];
+        int[] clusterId = new int[n]; // id of the cluster each union-find root stands for
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            clusterId[i] = i;
+        }
+        int[][] merges = new int[n - 1][];
+        double[] heights = new double[n - 1];
+        for (int k = 0; k < n - 1; k++) {
+            int e = byLength[k];
+            int a = find(parent, edgeEnds[e][0]);
+            int b = find(parent, edgeEnds[e][1]);
+            merges[k] = new int[]{clusterId[a], clusterId[b]};
+            heights[k] = edgeLengths[e];
+            parent[b] = a;
+            clusterId[a] = n + k;
+        }
+        return new HierarchicalClustering(n, merges, heights);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Leaves of the dendrogram left to right, walked without recursion (trees can be n deep)
+    private static int[] leafOrder(int size, int[][] merges) {
+        int[] order = new int[size];
+        if (size == 0) return order;
+        int[] stack = new int[size];
+        int top = 0;
+        int count = 0;
+        stack[top++] = size + merges.length - 1;
+        if (merges.length == 0) stack[0] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (node < size) {
+                order[count++] = node;
+            } else {
+                int[] children = merges[node - size];
+                stack[top++] = children[1];
+                stack[top++] = children[0];
+            }
+        }
+        return order;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[][] getMerges() {
+        return merges;
+    }
+
+    public double[] getHeights() {
+        return heights;
+    }
+
+    // Item indices in dendrogram order
+    public int[] getOrder() {
+        return order;
+    }
+}
@@ -7,6 +7,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.concurrent.ExecutionException;
+import java.util.function.IntConsumer;
 
 public class IndexDataReader extends JFrame {
 
@@ -42,41 +43,7 @@ public class IndexDataReader extends JFrame {
                      Connection conn = DatabaseUtil.connect()) {
 
                     conn.setAutoCommit(false); // Disable auto-commit for better performance
-
-                    // Erase all records in the index_data table
-                    PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM index_data");
-                    deleteStmt.executeUpdate();
-                    deleteStmt.close();
-
-                    PreparedStatement pstmt = conn.prepareStatement(
-                            "INSERT INTO index_data(date, close) " +
-                            "VALUES(?, ?)"
-                    );
-
-                    // Skip the header line
-                    br.readLine();
-
-                    String line;
-                    int count = 0;
-
-                    while ((line = br.readLine()) != null) {
-                        String[] values = line.split(",");
-                        if (values.length < 2) continue; // Skip if the row doesn't have all required columns
-
-                        pstmt.setString(1, values[0]); // Date
-                        pstmt.setDouble(2, Double.parseDouble(values[1])); // Close
-
-                        pstmt.addBatch();
-                        count++;
-
-                        if (count % BATCH_SIZE == 0) {
-                            pstmt.executeBatch();
-                            publish(count); // Report progress
-                        }
-                    }
-
-                    // Execute remaining batch
-                    pstmt.executeBatch();
+                    int count = ingest(br, conn, this::publish);
                     conn.commit(); // Commit the transaction
                     publish(count);
                 } catch (IOException | SQLException e) {
@@ -107,6 +74,49 @@ public class IndexDataReader extends JFrame {
         worker.execute();
     }
 
+    // Replaces index_data with the rows of an index CSV (header line first, MM/dd/yyyy dates).
+    // Runs in the caller's transaction; reports the row count every batch.
+    public static int ingest(BufferedReader br, Connection conn, IntConsumer progress) throws IOException, SQLException {
+        // Erase all records in the index_data table
+        try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM index_data")) {
+            deleteStmt.executeUpdate();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO index_data(date, close) " +
+                "VALUES(?, ?)")) {
+
+            // Skip the header line
+            br.readLine();
+
+            String line;
+            int count = 0;
+
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length < 2) continue; // Skip if the row doesn't have all required columns
+
+                pstmt.setString(1, values[0]); // Date
+                pstmt.setDouble(2, Double.parseDouble(values[1])); // Close
+
+                pstmt.addBatch();
+                count++;
+
+                if (count % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                    progress.accept(count); // Report progress
+                }
+            }
+
+            // Execute remaining batch
+            pstmt.executeBatch();
+
+            // Betas in the screener statistics are against the old index
+            DatabaseUtil.invalidateSymbolStats(conn);
+            return count;
+        }
+    }
+
     private int countLines(String filePath) throws IOException {
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             int lines = 0;
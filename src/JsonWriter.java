@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+// Minimal streaming JSON writer for machine-readable batch output
+public class JsonWriter {
+
+    private final Writer out;
+    private final Deque<Boolean> firstInScope = new ArrayDeque<>(); // one entry per open object/array
+    private boolean afterName;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        out.write('{');
+        firstInScope.push(true);
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        firstInScope.pop();
+        out.write('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        out.write('[');
+        firstInScope.push(true);
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        firstInScope.pop();
+        out.write(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        beforeValue();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    // NaN and infinities are not valid JSON numbers and are written as null
+    public JsonWriter value(double value) throws IOException {
+        beforeValue();
+        out.write(Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+
+    // Object of name -> number
+    public JsonWriter numberMap(Map<String, ? extends Number> values) throws IOException {
+        beginObject();
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+            name(entry.getKey());
+            if (entry.getValue() == null) {
+                nullValue();
+            } else if (entry.getValue() instanceof Integer || entry.getValue() instanceof Long) {
+                value(entry.getValue().longValue());
+            } else {
+                value(entry.getValue().doubleValue());
+            }
+        }
+        return endObject();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+        } else {
+            separate();
+        }
+    }
+
+    private void separate() throws IOException {
+        if (firstInScope.isEmpty()) return;
+        if (firstInScope.peek()) {
+            firstInScope.pop();
+            firstInScope.push(false);
+        } else {
+            out.write(',');
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
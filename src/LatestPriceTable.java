@@ -0,0 +1,47 @@
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatestPriceTable {
+
+    private final String[] stockSymbols;
+    private final Map<String, Integer> symbolIndex = new HashMap<>(); // never modified after construction
+    private final AtomicLongArray prices; // raw double bits, one slot per symbol
+
+    public LatestPriceTable(Collection<String> stockSymbols) {
+        this.stockSymbols = stockSymbols.toArray(new String[0]);
+        this.prices = new AtomicLongArray(this.stockSymbols.length);
+        for (int i = 0; i < this.stockSymbols.length; i++) {
+            symbolIndex.put(this.stockSymbols[i], i);
+            prices.set(i, Double.doubleToRawLongBits(Double.NaN));
+        }
+    }
+
+    // Index of the symbol, or -1 if it is not tracked
+    public int indexOf(String stockSymbol) {
+        Integer index = symbolIndex.get(stockSymbol);
+        return index != null ? index : -1;
+    }
+
+    public double get(int index) {
+        return Double.longBitsToDouble(prices.get(index));
+    }
+
+    public void set(int index, double price) {
+        prices.set(index, Double.doubleToRawLongBits(price));
+    }
+
+    // Atomically publish a new price and return the one it replaced
+    public double getAndSet(int index, double price) {
+        return Double.longBitsToDouble(prices.getAndSet(index, Double.doubleToRawLongBits(price)));
+    }
+
+    public String getStockSymbol(int index) {
+        return stockSymbols[index];
+    }
+
+    public int size() {
+        return stockSymbols.length;
+    }
+}
@@ -0,0 +1,66 @@
+// Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013).
+// Keeps the first and last points and, from each bucket in between, the point forming the largest
+// triangle with the previously kept point and the average of the next bucket, which preserves
+// the visual shape of a line far better than taking every n-th point.
+public class Lttb {
+
+    private Lttb() {
+    }
+
+    // Indices of at most threshold points chosen from [from, to), ascending
+    public static int[] downsample(long[] x, double[] y, int from, int to, int threshold) {
+        int n = to - from;
+        if (n <= 0) {
+            return new int[0];
+        }
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        // Work with x relative to the first point to keep the products well inside double precision
+        long origin = x[from];
+        int[] sampled = new int[threshold];
+        sampled[0] = from;
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = from;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third corner of the triangle
+            int avgStart = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int avgEnd = Math.min(from + (int) Math.floor((bucket + 2) * bucketSize) + 1, to);
+            double avgX = 0.0;
+            double avgY = 0.0;
+            for (int i = avgStart; i < avgEnd; i++) {
+                avgX += x[i] - origin;
+                avgY += y[i];
+            }
+            int avgCount = avgEnd - avgStart;
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            // Point of the current bucket with the largest triangle area
+            int rangeStart = from + (int) Math.floor(bucket * bucketSize) + 1;
+            int rangeEnd = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double aX = x[a] - origin;
+            double aY = y[a];
+            double maxArea = -1.0;
+            int maxIndex = rangeStart;
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double area = Math.abs((aX - avgX) * (y[i] - aY) - (aX - (x[i] - origin)) * (avgY - aY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            sampled[bucket + 1] = maxIndex;
+            a = maxIndex;
+        }
+
+        sampled[threshold - 1] = to - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,250 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters, histograms and timers for the hot paths (data loads, queries, optimizer runs,
+// betas, risk, charts). Cheap enough to leave on everywhere; read them through the JMX bean
+// (portfolio:type=Metrics) or the Diagnostics tab.
+//
+//   try (Metrics.Stopwatch ignored = Metrics.time("optimizer.optimize")) { ... }
+public final class Metrics {
+
+    private static final ConcurrentMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, Histogram> timers = new ConcurrentSkipListMap<>();
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    // Distribution of plain values, e.g. rows per query
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // Distribution of durations, recorded in nanoseconds and reported in milliseconds
+    public static Histogram timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    // Starts timing; closing the stopwatch records the elapsed time
+    public static Stopwatch time(String name) {
+        return new Stopwatch(timer(name));
+    }
+
+    // Every metric, sorted by name within counters, histograms and timers
+    public static List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        counters.forEach((name, counter) -> snapshots.add(new MetricSnapshot(name, "counter", counter.get(), 0, 0, 0, 0)));
+        histograms.forEach((name, histogram) -> snapshots.add(histogram.snapshot(name, "histogram", 1.0)));
+        timers.forEach((name, timer) -> snapshots.add(timer.snapshot(name, "timer (ms)", 1e-6)));
+        return snapshots;
+    }
+
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+        timers.values().forEach(Histogram::reset);
+    }
+
+    // Publishes the registry on the platform MBean server; for long-running processes (app, server)
+    public static synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName("portfolio:type=Metrics"));
+            registered = true;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static final class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    // Count, sum and max over all values, and percentiles over the most recent RESERVOIR_SIZE values
+    public static final class Histogram {
+
+        private static final int RESERVOIR_SIZE = 1024;
+
+        private final long[] recent = new long[RESERVOIR_SIZE];
+        private long count;
+        private long sum;
+        private long max;
+
+        public synchronized void update(long value) {
+            recent[(int) (count % RESERVOIR_SIZE)] = value;
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        synchronized MetricSnapshot snapshot(String name, String type, double scale) {
+            long[] values = Arrays.copyOf(recent, (int) Math.min(count, RESERVOIR_SIZE));
+            Arrays.sort(values);
+            double mean = count > 0 ? (double) sum / count : 0.0;
+            return new MetricSnapshot(name, type, count, mean * scale,
+                    percentile(values, 0.50) * scale, percentile(values, 0.99) * scale, max * scale);
+        }
+
+        synchronized void reset() {
+            count = 0;
+            sum = 0;
+            max = 0;
+        }
+
+        // Nearest-rank percentile of sorted values
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0.0;
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    public static final class Stopwatch implements AutoCloseable {
+
+        private final Histogram timer;
+        private final long start = System.nanoTime();
+
+        private Stopwatch(Histogram timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void close() {
+            timer.update(System.nanoTime() - start);
+        }
+    }
+
+    // One row of the registry; all values are in the metric's reporting unit
+    public static final class MetricSnapshot {
+
+        private final String name;
+        private final String type;
+        private final long count;
+        private final double mean;
+        private final double p50;
+        private final double p99;
+        private final double max;
+
+        MetricSnapshot(String name, String type, long count, double mean, double p50, double p99, double max) {
+            this.name = name;
+            this.type = type;
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+
+        @Override
+        public Map<String, Long> getCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (MetricSnapshot snapshot : snapshot()) counts.put(snapshot.getName(), snapshot.getCount());
+            return counts;
+        }
+
+        @Override
+        public Map<String, Double> getMeans() {
+            Map<String, Double> means = new LinkedHashMap<>();
+            for (MetricSnapshot snapshot : distributions()) means.put(snapshot.getName(), snapshot.getMean());
+            return means;
+        }
+
+        @Override
+        public Map<String, Double> getP50() {
+            Map<String, Double> p50 = new LinkedHashMap<>();
+            for (MetricSnapshot snapshot : distributions()) p50.put(snapshot.getName(), snapshot.getP50());
+            return p50;
+        }
+
+        @Override
+        public Map<String, Double> getP99() {
+            Map<String, Double> p99 = new LinkedHashMap<>();
+            for (MetricSnapshot snapshot : distributions()) p99.put(snapshot.getName(), snapshot.getP99());
+            return p99;
+        }
+
+        @Override
+        public Map<String, Double> getMax() {
+            Map<String, Double> max = new LinkedHashMap<>();
+            for (MetricSnapshot snapshot : distributions()) max.put(snapshot.getName(), snapshot.getMax());
+            return max;
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+
+        private static List<MetricSnapshot> distributions() {
+            List<MetricSnapshot> distributions = snapshot();
+            distributions.removeIf(snapshot -> snapshot.getType().equals("counter"));
+            return distributions;
+        }
+    }
+}
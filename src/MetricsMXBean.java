@@ -0,0 +1,18 @@
+import java.util.Map;
+
+// JMX view of the Metrics registry, keyed by metric name. Timer values are in milliseconds.
+public interface MetricsMXBean {
+
+    // Counter values, and the number of recorded values for histograms and timers
+    Map<String, Long> getCounts();
+
+    Map<String, Double> getMeans();
+
+    Map<String, Double> getP50();
+
+    Map<String, Double> getP99();
+
+    Map<String, Double> getMax();
+
+    void reset();
+}
@@ -0,0 +1,147 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Scope for off-heap matrices: everything allocated from an arena is released when it is closed.
+//
+//   try (OffHeapArena arena = OffHeapArena.open()) {
+//       OffHeapMatrix returns = arena.allocate(numStocks, numDays);
+//       ...
+//   }
+//
+// Memory is direct ByteBuffers, freed explicitly when the arena is closed instead of whenever the garbage
+// collector gets to the buffer objects. With -Dportfolio.offHeapPoolMB=N, up to N MB of closed arenas'
+// buffers are kept in a process-wide pool for the next arena instead, for workloads that repeat the same
+// computation; pooling is off by default. Matrices of a closed arena throw IllegalStateException when used.
+// An arena belongs to one computation; it is not meant to be shared between threads while allocating.
+public final class OffHeapArena implements AutoCloseable {
+
+    private static final long POOL_LIMIT_BYTES = Long.getLong("portfolio.offHeapPoolMB", 0) << 20;
+    private static final int MIN_BUFFER_BYTES = 64 << 10;
+    static final int MAX_BUFFER_BYTES = 1 << 30; // larger matrices are split into row blocks of at most this size
+
+    // sun.misc.Unsafe.invokeCleaner(ByteBuffer), which frees a direct buffer's native memory right away;
+    // null if the JDK does not expose it (the garbage collector frees the memory then)
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    // Free buffers by capacity (powers of two)
+    private static final Map<Integer, ConcurrentLinkedDeque<ByteBuffer>> pool = new ConcurrentHashMap<>();
+    private static final AtomicLong pooledBytes = new AtomicLong();
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private final List<OffHeapMatrix> matrices = new ArrayList<>();
+    private boolean closed;
+
+    private OffHeapArena() {
+    }
+
+    public static OffHeapArena open() {
+        return new OffHeapArena();
+    }
+
+    // Zero-filled rows x columns matrix of doubles
+    public OffHeapMatrix allocate(int rows, int columns) {
+        if (closed) {
+            throw new IllegalStateException("Arena is closed");
+        }
+        if (rows < 0 || columns < 0 || (long) columns * Double.BYTES > MAX_BUFFER_BYTES) {
+            throw new IllegalArgumentException("Invalid matrix size " + rows + " x " + columns);
+        }
+        int rowsPerBlock = columns == 0 ? Math.max(1, rows) : Math.max(1, Math.min(rows, MAX_BUFFER_BYTES / (columns * Double.BYTES)));
+        int numBlocks = rows == 0 ? 0 : (rows + rowsPerBlock - 1) / rowsPerBlock;
+        ByteBuffer[] blocks = new ByteBuffer[numBlocks];
+        for (int b = 0; b < numBlocks; b++) {
+            int blockRows = Math.min(rowsPerBlock, rows - b * rowsPerBlock);
+            blocks[b] = acquire(blockRows * columns * Double.BYTES);
+        }
+        OffHeapMatrix matrix = new OffHeapMatrix(rows, columns, rowsPerBlock, blocks);
+        matrices.add(matrix);
+        return matrix;
+    }
+
+    private ByteBuffer acquire(int bytes) {
+        // Pooled buffers are sized in powers of two so they can be reused for other sizes
+        int capacity = POOL_LIMIT_BYTES == 0 ? bytes
+                : Math.max(MIN_BUFFER_BYTES, bytes <= MAX_BUFFER_BYTES / 2 ? Integer.highestOneBit(Math.max(1, bytes - 1)) << 1 : MAX_BUFFER_BYTES);
+        ByteBuffer buffer = null;
+        ConcurrentLinkedDeque<ByteBuffer> free = pool.get(capacity);
+        if (free != null) {
+            buffer = free.pollFirst();
+        }
+        if (buffer != null) {
+            pooledBytes.addAndGet(-capacity);
+            Metrics.counter("offHeap.poolHits").increment();
+            // A pooled buffer holds the previous arena's data; clear the part handed out
+            for (int i = 0; i < bytes; i += Long.BYTES) {
+                buffer.putLong(i, 0L);
+            }
+        } else {
+            buffer = ByteBuffer.allocateDirect(capacity); // zero-filled by the JDK
+            Metrics.counter("offHeap.allocations").increment();
+        }
+        buffers.add(buffer);
+
+        buffer.clear();
+        buffer.limit(bytes);
+        return buffer.slice().order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (OffHeapMatrix matrix : matrices) {
+            matrix.release();
+        }
+        for (ByteBuffer buffer : buffers) {
+            int capacity = buffer.capacity();
+            if (pooledBytes.addAndGet(capacity) <= POOL_LIMIT_BYTES) {
+                pool.computeIfAbsent(capacity, c -> new ConcurrentLinkedDeque<>()).addFirst(buffer);
+            } else {
+                pooledBytes.addAndGet(-capacity);
+                free(buffer);
+            }
+        }
+        matrices.clear();
+        buffers.clear();
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+            Metrics.counter("offHeap.frees").increment();
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Looked up reflectively: sun.misc.Unsafe is not part of the public API
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.out.println("Off-heap buffers will be freed by the garbage collector: " + e);
+            return null;
+        }
+    }
+
+    // Native memory currently held in the pool
+    public static long getPooledBytes() {
+        return pooledBytes.get();
+    }
+}
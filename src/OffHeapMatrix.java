@@ -0,0 +1,90 @@
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+// Row-major matrix of doubles in native memory, allocated from an OffHeapArena and valid until the
+// arena is closed. Rows are stored in blocks of up to 1 GB, so matrices larger than one ByteBuffer work.
+//
+// Kernels read a row through block(row) and offset(row) with absolute DoubleBuffer gets, which the JIT
+// compiles to plain memory loads.
+public final class OffHeapMatrix {
+
+    private final int rows;
+    private final int columns;
+    private final int rowsPerBlock;
+    private DoubleBuffer[] blocks;
+
+    OffHeapMatrix(int rows, int columns, int rowsPerBlock, ByteBuffer[] blocks) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowsPerBlock = rowsPerBlock;
+        this.blocks = new DoubleBuffer[blocks.length];
+        for (int b = 0; b < blocks.length; b++) {
+            this.blocks[b] = blocks[b].asDoubleBuffer();
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    // Buffer holding the row, which starts at offset(row); only valid until the arena is closed, so kernels
+    // must not keep it
+    public DoubleBuffer block(int row) {
+        DoubleBuffer[] current = blocks;
+        if (current == null) {
+            throw new IllegalStateException("The arena of this matrix is closed");
+        }
+        return current[row / rowsPerBlock];
+    }
+
+    public int offset(int row) {
+        return (row % rowsPerBlock) * columns;
+    }
+
+    public double get(int row, int column) {
+        return block(row).get(offset(row) + column);
+    }
+
+    public void set(int row, int column, double value) {
+        block(row).put(offset(row) + column, value);
+    }
+
+    public void setRow(int row, double[] values) {
+        DoubleBuffer block = block(row);
+        int base = offset(row);
+        for (int column = 0; column < columns; column++) {
+            block.put(base + column, values[column]);
+        }
+    }
+
+    public double[] getRow(int row) {
+        double[] values = new double[columns];
+        DoubleBuffer block = block(row);
+        int base = offset(row);
+        for (int column = 0; column < columns; column++) {
+            values[column] = block.get(base + column);
+        }
+        return values;
+    }
+
+    // Dot product of two rows, summed in column order
+    public double dotRows(int row, OffHeapMatrix other, int otherRow) {
+        DoubleBuffer x = block(row);
+        DoubleBuffer y = other.block(otherRow);
+        int xBase = offset(row);
+        int yBase = other.offset(otherRow);
+        double sum = 0.0;
+        for (int column = 0; column < columns; column++) {
+            sum += x.get(xBase + column) * y.get(yBase + column);
+        }
+        return sum;
+    }
+
+    void release() {
+        blocks = null;
+    }
+}
@@ -0,0 +1,19 @@
+public enum OptimizationMethod {
+
+    NELDER_MEAD("Max Sharpe (Nelder-Mead)"),
+    POWELL("Max Sharpe (Powell)"),
+    HRP("Hierarchical Risk Parity"),
+    MIN_VARIANCE("Minimum Variance"),
+    ERC("Equal Risk Contribution");
+
+    private final String label;
+
+    OptimizationMethod(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
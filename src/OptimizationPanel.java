@@ -9,14 +9,13 @@ import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
+import org.jfree.chart.title.TextTitle;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,15 +28,21 @@ public class OptimizationPanel {
     private Map<String, Integer> originalPtf;
     private Map<String, Integer> optimizedPtf;
 
+    // Statistics behind the last optimization, reused for the risk decomposition
+    private ReturnStatistics statistics;
+
     public OptimizationPanel(StockPortfolioApp stockPortfolioApp) {
         this.stockPortfolioApp = stockPortfolioApp;
         this.portfolioOptimizer = new PortfolioOptimizer();
     }
 
-    public Map<String, Double> computeOptimizedPortfolio(double riskFreeRate) {
-        // Fetch stock data using the existing portfolio
-        Map<String, Map<Date, Double>> stockDataMap = stockPortfolioApp.getStockDataForPortfolio();
-        
+    // Runs off the EDT; works only on the given portfolio version, never on the live one
+    public Map<String, Double> computeOptimizedPortfolio(Portfolio portfolio, Map<String, PriceSeries> stockDataMap, double riskFreeRate, PriceSnapshot snapshot) {
+        return computeOptimizedPortfolio(portfolio, stockDataMap, riskFreeRate, OptimizationMethod.NELDER_MEAD, snapshot);
+    }
+
+    public Map<String, Double> computeOptimizedPortfolio(Portfolio portfolio, Map<String, PriceSeries> stockDataMap, double riskFreeRate,
+                                                         OptimizationMethod method, PriceSnapshot snapshot) {
         // Check if stock data is available
         if (stockDataMap.isEmpty()) {
             System.out.println("No stock data available.");
@@ -45,129 +50,147 @@ public class OptimizationPanel {
         }
 
         // Compute the optimized weights using the efficient frontier method
-        Map<String, Double> optimizedWeights = portfolioOptimizer.computeEfficientFrontier(stockDataMap, riskFreeRate);
+        statistics = portfolioOptimizer.computeStatistics(stockDataMap);
+        Map<String, Double> optimizedWeights = portfolioOptimizer.optimize(statistics, riskFreeRate, method);
 
         // Store the portfolios
-        originalPtf = stockPortfolioApp.getPortfolio();
-        optimizedPtf = stockPortfolioApp.getOptimizedPortfolio(optimizedWeights);
+        originalPtf = portfolio.getHoldings();
+        optimizedPtf = stockPortfolioApp.getOptimizedPortfolio(portfolio, optimizedWeights, snapshot);
 
         return optimizedWeights;
     }
 
-    public void updateSummaryTable(DefaultTableModel tableModel, Map<String, Double> userInputNotional, Map<String, Double> userInputWeights, Map<String, Double> optimizedWeights, Map<String, Map<Date, Double>> stockDataMap) {
+    public void updateSummaryTable(DefaultTableModel tableModel, Map<String, Double> userInputNotional, Map<String, Double> userInputWeights, Map<String, Double> optimizedWeights, PriceSnapshot snapshot) {
         tableModel.setRowCount(0); // Clear existing rows
 
+        // Marginal / component risk for both portfolios from one Sigma * w product each
+        RiskDecomposition userRisk = RiskDecomposition.compute(statistics, userInputWeights);
+        RiskDecomposition optimizedRisk = RiskDecomposition.compute(statistics, optimizedWeights);
+
         for (String stockSymbol : originalPtf.keySet()) {
             int userQuantity = originalPtf.get(stockSymbol);
             double userNotional = userInputNotional.getOrDefault(stockSymbol, 0.0);
             double userWeight = userInputWeights.getOrDefault(stockSymbol, 0.0);
             double optimizedWeight = optimizedWeights.getOrDefault(stockSymbol, 0.0);
             double optimizedNotional = userNotional * (optimizedWeight / userWeight);
-            int optimizedQuantity = (int) (optimizedNotional / getCurrentPrice(stockSymbol));
+            int optimizedQuantity = (int) (optimizedNotional / snapshot.getPrice(stockSymbol));
 
             tableModel.addRow(new Object[]{
                 stockSymbol,
                 NumberFormatter.formatToInteger(userQuantity),
                 NumberFormatter.formatToInteger(userNotional),
                 NumberFormatter.formatToPercentage(userWeight),
+                NumberFormatter.formatToPercentage(userRisk.getMarginalRisk(stockSymbol)),
+                NumberFormatter.formatToPercentage(userRisk.getComponentRisk(stockSymbol)),
+                NumberFormatter.formatToPercentage(userRisk.getPercentContribution(stockSymbol)),
                 NumberFormatter.formatToInteger(optimizedQuantity),
                 NumberFormatter.formatToInteger(optimizedNotional),
-                NumberFormatter.formatToPercentage(optimizedWeight)
+                NumberFormatter.formatToPercentage(optimizedWeight),
+                NumberFormatter.formatToPercentage(optimizedRisk.getMarginalRisk(stockSymbol)),
+                NumberFormatter.formatToPercentage(optimizedRisk.getComponentRisk(stockSymbol)),
+                NumberFormatter.formatToPercentage(optimizedRisk.getPercentContribution(stockSymbol))
             });
         }
     }
 
-    private double getCurrentPrice(String stockSymbol) {
-        // Retrieve the most recent price from stock data
-        Map<String, Map<Date, Double>> stockDataMap = stockPortfolioApp.getStockDataForPortfolio();
-        Map<Date, Double> stockPrices = stockDataMap.get(stockSymbol);
-        if (stockPrices != null && !stockPrices.isEmpty()) {
-            return stockPrices.entrySet()
-                              .stream()
-                              .max(Map.Entry.comparingByKey()) // Get the most recent date
-                              .map(Map.Entry::getValue)
-                              .orElse(0.0);
-        }
-        return 0.0;
+    public ReturnStatistics getStatistics() {
+        return statistics;
     }
 
-    // Method to update the performance chart
-    
-    public void updatePerformanceChart(JPanel chartPanel, Map<String, Map<Date, Double>> stockDataMap, Map<String, Double> optimizedWeights, Date fromDate, Date toDate) {
-        chartPanel.removeAll(); // Clear existing chart
-
-        // Debug: Print dates and data map size
-        System.out.println("From Date: " + fromDate);
-        System.out.println("To Date: " + toDate);
-        System.out.println("Stock Data Map Size: " + stockDataMap.size());
-
-        // Create series for original and optimized portfolios
-        XYSeries originalPortfolioSeries = new XYSeries("Original Portfolio");
-        XYSeries optimizedPortfolioSeries = new XYSeries("Optimized Portfolio");
-
-        double minY = Double.MAX_VALUE;
-        double maxY = Double.MIN_VALUE;
-
-        // Get the quantities for the original portfolio
-        Map<String, Integer> portfolioQuantities = stockPortfolioApp.getPortfolioQuantities();
+    // Compute the performance comparison series; runs off the EDT. Returns null if there is no data in range.
+    public PerformanceChartData computePerformanceComparison(Map<String, PriceSeries> stockDataMap, Map<String, Integer> portfolioQuantities, Map<String, Double> optimizedWeights, LocalDate fromDate, LocalDate toDate, PriceSnapshot snapshot) {
+        try (Metrics.Stopwatch ignored = Metrics.time("chart.performance")) {
+            return buildPerformanceComparison(stockDataMap, portfolioQuantities, optimizedWeights, fromDate, toDate, snapshot);
+        }
+    }
 
+    private PerformanceChartData buildPerformanceComparison(Map<String, PriceSeries> stockDataMap, Map<String, Integer> portfolioQuantities, Map<String, Double> optimizedWeights, LocalDate fromDate, LocalDate toDate, PriceSnapshot snapshot) {
         // Calculate optimized quantities based on optimized weights
         Map<String, Integer> optimizedQuantities = new HashMap<>();
-        double totalValue = portfolioQuantities.entrySet().stream()
-            .mapToDouble(entry -> {
-                String stockSymbol = entry.getKey();
-                int quantity = entry.getValue();
-                Double price = getCurrentPrice(stockSymbol);
-                return quantity * price;
-            }).sum();
+        double totalValue = snapshot.getNotional(portfolioQuantities);
 
         for (String stockSymbol : portfolioQuantities.keySet()) {
             Double optimizedWeight = optimizedWeights != null ? optimizedWeights.get(stockSymbol) : 0.0;
-            int optimizedQuantity = (int) Math.round((optimizedWeight * totalValue) / getCurrentPrice(stockSymbol));
+            int optimizedQuantity = (int) Math.round((optimizedWeight * totalValue) / snapshot.getPrice(stockSymbol));
             optimizedQuantities.put(stockSymbol, optimizedQuantity);
         }
 
-        // Calculate portfolio values over time
-        for (Date date : stockDataMap.values().stream().findAny().orElse(new HashMap<>()).keySet()) {
-            if (date.before(fromDate) || date.after(toDate)) {
-                continue; // Skip dates outside the specified range
-            }
+        // Calculate portfolio values over the trading days in range, in date order
+        AlignedPrices prices = AlignedPrices.fromPriceSeries(stockDataMap);
+        BacktestEngine backtestEngine = new BacktestEngine();
+        BacktestResult originalResult = backtestEngine.run(prices, portfolioQuantities, fromDate, toDate);
+        BacktestResult optimizedResult = backtestEngine.run(prices, optimizedQuantities, fromDate, toDate);
+        if (originalResult.size() == 0) {
+            return null;
+        }
 
-            double originalPortfolioValue = 0.0;
-            double optimizedPortfolioValue = 0.0;
+        // Chart the result arrays directly, no per-point series objects
+        ArrayXYDataset dataset = new ArrayXYDataset();
+        dataset.addSeries("Original Portfolio", EpochDays.toEpochMillis(originalResult.getDays()), originalResult.getValues());
+        dataset.addSeries("Optimized Portfolio", EpochDays.toEpochMillis(optimizedResult.getDays()), optimizedResult.getValues());
 
-            for (Map.Entry<String, Map<Date, Double>> stockEntry : stockDataMap.entrySet()) {
-                String stockSymbol = stockEntry.getKey();
-                Map<Date, Double> stockPrices = stockEntry.getValue();
-                double price = stockPrices.getOrDefault(date, 0.0);
+        // Min and max Y values for better Y-axis fitting
+        double minY = Math.min(originalResult.getMinValue(), optimizedResult.getMinValue());
+        double maxY = Math.max(originalResult.getMaxValue(), optimizedResult.getMaxValue());
 
-                // Calculate original portfolio value
-                int originalQuantity = portfolioQuantities.getOrDefault(stockSymbol, 0);
-                originalPortfolioValue += originalQuantity * price;
+        return new PerformanceChartData(dataset, minY, maxY, null);
+    }
 
-                // Calculate optimized portfolio value
-                int optimizedQuantity = optimizedQuantities.getOrDefault(stockSymbol, 0);
-                optimizedPortfolioValue += optimizedQuantity * price;
-            }
+    // Compare the user portfolio against a walk-forward strategy re-optimized at every rebalance date
+    public PerformanceChartData computeWalkForward(Map<String, PriceSeries> stockDataMap, Map<String, Integer> portfolioQuantities, double riskFreeRate,
+                                                   OptimizationMethod method, int rebalanceMonths, LocalDate fromDate, LocalDate toDate) {
+        try (Metrics.Stopwatch ignored = Metrics.time("chart.walkForward")) {
+            return buildWalkForward(stockDataMap, portfolioQuantities, riskFreeRate, method, rebalanceMonths, fromDate, toDate);
+        }
+    }
 
-            // Track min and max Y values for better Y-axis fitting
-            minY = Math.min(minY, Math.min(originalPortfolioValue, optimizedPortfolioValue));
-            maxY = Math.max(maxY, Math.max(originalPortfolioValue, optimizedPortfolioValue));
+    private PerformanceChartData buildWalkForward(Map<String, PriceSeries> stockDataMap, Map<String, Integer> portfolioQuantities, double riskFreeRate,
+                                                  OptimizationMethod method, int rebalanceMonths, LocalDate fromDate, LocalDate toDate) {
+        AlignedPrices prices = AlignedPrices.fromPriceSeries(stockDataMap);
+        BacktestResult originalResult = new BacktestEngine().run(prices, portfolioQuantities, fromDate, toDate);
+        if (originalResult.size() == 0) {
+            return null;
+        }
 
-            originalPortfolioSeries.add(date.getTime(), originalPortfolioValue);
-            optimizedPortfolioSeries.add(date.getTime(), optimizedPortfolioValue);
+        // Start the strategy with the same capital as the user portfolio
+        int start = prices.startIndex(EpochDays.of(fromDate));
+        int end = prices.endIndex(EpochDays.of(toDate));
+        WalkForwardBacktest walkForward = new WalkForwardBacktest(756, rebalanceMonths, riskFreeRate, method, null);
+        WalkForwardResult walkForwardResult = walkForward.run(prices, originalResult.getValues()[0], start, end);
+        BacktestResult walkForwardBacktest = walkForwardResult.getBacktest();
+
+        ArrayXYDataset dataset = new ArrayXYDataset();
+        dataset.addSeries("Original Portfolio", EpochDays.toEpochMillis(originalResult.getDays()), originalResult.getValues());
+        dataset.addSeries("Walk-Forward Optimized", EpochDays.toEpochMillis(walkForwardBacktest.getDays()), walkForwardBacktest.getValues());
+        double minY = Math.min(originalResult.getMinValue(), walkForwardBacktest.getMinValue());
+        double maxY = Math.max(originalResult.getMaxValue(), walkForwardBacktest.getMaxValue());
+
+        String subtitle = walkForwardResult.getRebalanceDays().length + " rebalances, avg turnover "
+                + NumberFormatter.formatToPercentage(walkForwardResult.getAverageTurnover())
+                + ", max drawdown " + NumberFormatter.formatToPercentage(walkForwardBacktest.getMaxDrawdown());
+        int rebalances = walkForwardResult.getRebalanceDays().length;
+        int fallbacks = walkForwardResult.getFallbacks();
+        if (fallbacks * 2 > rebalances) {
+            // Mostly an equal-weight portfolio, not the selected method
+            subtitle = "WARNING: " + fallbacks + " of " + rebalances + " " + method + " optimizations failed and were held at equal weights; "
+                    + "try Minimum Variance, ERC or HRP. " + subtitle;
+        } else if (fallbacks > 0) {
+            subtitle += ", " + fallbacks + " failed optimizations held at equal weights";
         }
+        return new PerformanceChartData(dataset, minY, maxY, subtitle);
+    }
 
-        // Check if series contain any data
-        if (originalPortfolioSeries.getItemCount() == 0 && optimizedPortfolioSeries.getItemCount() == 0) {
+    // Display computed series; must run on the EDT
+    public void showPerformanceChart(JPanel chartPanel, PerformanceChartData chartData) {
+        if (chartData == null) {
             JOptionPane.showMessageDialog(chartPanel, "No data available for the selected date range.", "Data Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
-
-        // Create dataset and add series
-        XYSeriesCollection dataset = new XYSeriesCollection();
-        dataset.addSeries(originalPortfolioSeries);
-        dataset.addSeries(optimizedPortfolioSeries);
+        chartPanel.removeAll(); // Clear existing chart
+        ArrayXYDataset dataset = chartData.getDataset();
+        double minY = chartData.getMinY();
+        double maxY = chartData.getMaxY();
+        String subtitle = chartData.getSubtitle();
 
         // Update chart with new dataset
         JFreeChart chart = ChartFactory.createXYLineChart(
@@ -197,9 +220,18 @@ public class OptimizationPanel {
         renderer.setSeriesShapesVisible(1, false); // Hide shapes for optimized series
         plot.setRenderer(renderer);
 
+        if (subtitle != null) {
+            TextTitle title = new TextTitle(subtitle);
+            if (subtitle.startsWith("WARNING")) {
+                title.setPaint(Color.RED);
+            }
+            chart.addSubtitle(title);
+        }
+
         // Create chart component and add it to the panel
         ChartPanel chartComponent = new ChartPanel(chart);
         chartPanel.add(chartComponent, BorderLayout.CENTER);
+        dataset.attachTo(chartComponent);
         chartPanel.revalidate();
         chartPanel.repaint();
     }
@@ -0,0 +1,80 @@
+import java.util.Collections;
+import java.util.Map;
+
+// Outcome of one optimizer run: the weights plus how the optimizer got there, so evaluation budgets
+// can be sized and non-converged runs are visible instead of silently returned.
+public class OptimizationResult {
+
+    private final Map<String, Double> weights;
+    private final OptimizationMethod method;
+    private final int iterations;
+    private final int evaluations;
+    private final int maxEvaluations;
+    private final long wallTimeNanos;
+    private final double sharpeRatio; // of the normalized weights, in the objective's (daily) units
+    private final boolean converged;
+    private final boolean leveraged;  // some weights negative, so the book is long/short with gross exposure above 1
+    private final double[] trace;     // objective value per evaluation, or null when not recorded
+
+    public OptimizationResult(Map<String, Double> weights, OptimizationMethod method, int iterations, int evaluations,
+                              int maxEvaluations, long wallTimeNanos, double sharpeRatio, boolean converged, boolean leveraged,
+                              double[] trace) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.method = method;
+        this.iterations = iterations;
+        this.evaluations = evaluations;
+        this.maxEvaluations = maxEvaluations;
+        this.wallTimeNanos = wallTimeNanos;
+        this.sharpeRatio = sharpeRatio;
+        this.converged = converged;
+        this.leveraged = leveraged;
+        this.trace = trace;
+    }
+
+    public Map<String, Double> getWeights() {
+        return weights;
+    }
+
+    public OptimizationMethod getMethod() {
+        return method;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1e6;
+    }
+
+    public double getSharpeRatio() {
+        return sharpeRatio;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public boolean isLeveraged() {
+        return leveraged;
+    }
+
+    public double[] getTrace() {
+        return trace;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, %d iterations, %d of %d evaluations, %.1f ms, Sharpe %.4f%s%s", method.name(), iterations,
+                evaluations, maxEvaluations, getWallTimeMillis(), sharpeRatio, leveraged ? ", long/short" : "",
+                converged ? "" : ", not converged");
+    }
+}
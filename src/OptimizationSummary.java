@@ -0,0 +1,34 @@
+import java.util.Map;
+
+// Inputs and result of one Optimize Portfolio run, handed from the background task to the summary table
+public class OptimizationSummary {
+
+    private final Map<String, Double> userInputNotional;
+    private final Map<String, Double> userInputWeights;
+    private final Map<String, Double> optimizedWeights;
+    private final PriceSnapshot snapshot;
+
+    public OptimizationSummary(Map<String, Double> userInputNotional, Map<String, Double> userInputWeights,
+                               Map<String, Double> optimizedWeights, PriceSnapshot snapshot) {
+        this.userInputNotional = userInputNotional;
+        this.userInputWeights = userInputWeights;
+        this.optimizedWeights = optimizedWeights;
+        this.snapshot = snapshot;
+    }
+
+    public Map<String, Double> getUserInputNotional() {
+        return userInputNotional;
+    }
+
+    public Map<String, Double> getUserInputWeights() {
+        return userInputWeights;
+    }
+
+    public Map<String, Double> getOptimizedWeights() {
+        return optimizedWeights;
+    }
+
+    public PriceSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
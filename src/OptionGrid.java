@@ -0,0 +1,73 @@
+public class OptionGrid {
+
+    private final double[] strikes;
+    private final double[] expiries; // in years
+    private final boolean isPut;
+
+    // Flattened strike x expiry arrays, index = expiryIndex * numStrikes + strikeIndex
+    private final double[] price;
+    private final double[] delta;
+    private final double[] gamma;
+    private final double[] vega;
+    private final double[] theta;
+
+    public OptionGrid(double[] strikes, double[] expiries, boolean isPut) {
+        this.strikes = strikes;
+        this.expiries = expiries;
+        this.isPut = isPut;
+        int size = strikes.length * expiries.length;
+        this.price = new double[size];
+        this.delta = new double[size];
+        this.gamma = new double[size];
+        this.vega = new double[size];
+        this.theta = new double[size];
+    }
+
+    public int size() {
+        return price.length;
+    }
+
+    public int index(int expiryIndex, int strikeIndex) {
+        return expiryIndex * strikes.length + strikeIndex;
+    }
+
+    public double strikeAt(int index) {
+        return strikes[index % strikes.length];
+    }
+
+    public double expiryAt(int index) {
+        return expiries[index / strikes.length];
+    }
+
+    public double[] getStrikes() {
+        return strikes;
+    }
+
+    public double[] getExpiries() {
+        return expiries;
+    }
+
+    public boolean isPut() {
+        return isPut;
+    }
+
+    public double[] getPrice() {
+        return price;
+    }
+
+    public double[] getDelta() {
+        return delta;
+    }
+
+    public double[] getGamma() {
+        return gamma;
+    }
+
+    public double[] getVega() {
+        return vega;
+    }
+
+    public double[] getTheta() {
+        return theta;
+    }
+}
@@ -0,0 +1,66 @@
+public class OptionHedge {
+
+    public static final double CONTRACT_MULTIPLIER = 100.0; // SPX index options
+
+    private final double spot;
+    private final double strike;
+    private final double expiry; // in years
+    private final int contracts;
+    private final double premium; // per unit of index, as quoted
+    private final double rate;
+    private final double volatility;
+    private final double horizon; // in years, when the scenario moves are evaluated
+
+    public OptionHedge(double spot, double strike, double expiry, int contracts, double premium, double rate,
+                       double volatility, double horizon) {
+        this.spot = spot;
+        this.strike = strike;
+        this.expiry = expiry;
+        this.contracts = contracts;
+        this.premium = premium;
+        this.rate = rate;
+        this.volatility = volatility;
+        this.horizon = horizon;
+    }
+
+    // PnL of the whole put package, premium included, for a given % SPX index move at the hedge horizon.
+    // The put is fully repriced, the same way HedgeOptimizer sized it.
+    public double computePnL(double spxMove) {
+        double shockedPrice = OptionPricer.price(spot * (1 + spxMove), strike, expiry - horizon, rate, volatility, true);
+        return contracts * CONTRACT_MULTIPLIER * (shockedPrice - premium);
+    }
+
+    public double getTotalCost() {
+        return contracts * CONTRACT_MULTIPLIER * premium;
+    }
+
+    public double getSpot() {
+        return spot;
+    }
+
+    public double getStrike() {
+        return strike;
+    }
+
+    public double getExpiry() {
+        return expiry;
+    }
+
+    public int getContracts() {
+        return contracts;
+    }
+
+    public double getPremium() {
+        return premium;
+    }
+
+    public double getHorizon() {
+        return horizon;
+    }
+
+    @Override
+    public String toString() {
+        return contracts + " x SPX " + NumberFormatter.formatToInteger(strike) + " put, "
+                + Math.round(expiry * 52) + "w, cost " + NumberFormatter.formatToInteger(getTotalCost());
+    }
+}
@@ -0,0 +1,113 @@
+import java.util.stream.IntStream;
+
+public class OptionPricer {
+
+    private static final double INV_SQRT_2PI = 0.3989422804014327;
+
+    // Price and Greeks for every strike x expiry combination of the grid.
+    // Results are stored row-major by expiry: index = expiryIndex * numStrikes + strikeIndex
+    public static OptionGrid priceGrid(double spot, double[] strikes, double[] expiries, double rate, double volatility, boolean isPut) {
+        OptionGrid grid = new OptionGrid(strikes, expiries, isPut);
+        priceGrid(grid, spot, rate, volatility);
+        return grid;
+    }
+
+    // Re-price an existing grid in place (e.g. for a shocked spot), without allocating new arrays
+    public static void priceGrid(OptionGrid grid, double spot, double rate, double volatility) {
+        final double[] strikes = grid.getStrikes();
+        final double[] expiries = grid.getExpiries();
+        final int numStrikes = strikes.length;
+        final boolean isPut = grid.isPut();
+        final double[] price = grid.getPrice();
+        final double[] delta = grid.getDelta();
+        final double[] gamma = grid.getGamma();
+        final double[] vega = grid.getVega();
+        final double[] theta = grid.getTheta();
+
+        // Each expiry row is independent, so rows are priced in parallel
+        IntStream.range(0, expiries.length).parallel().forEach(t -> {
+            double expiry = expiries[t];
+            double sqrtT = Math.sqrt(expiry);
+            double volSqrtT = volatility * sqrtT;
+            double discount = Math.exp(-rate * expiry);
+            int offset = t * numStrikes;
+
+            for (int k = 0; k < numStrikes; k++) {
+                int i = offset + k;
+                double strike = strikes[k];
+
+                if (expiry <= 0 || volSqrtT <= 0) {
+                    // Expired option is worth its intrinsic value
+                    double intrinsic = isPut ? Math.max(strike - spot, 0.0) : Math.max(spot - strike, 0.0);
+                    price[i] = intrinsic;
+                    delta[i] = intrinsic > 0 ? (isPut ? -1.0 : 1.0) : 0.0;
+                    gamma[i] = 0.0;
+                    vega[i] = 0.0;
+                    theta[i] = 0.0;
+                    continue;
+                }
+
+                double d1 = (Math.log(spot / strike) + (rate + 0.5 * volatility * volatility) * expiry) / volSqrtT;
+                double d2 = d1 - volSqrtT;
+                double pdfD1 = INV_SQRT_2PI * Math.exp(-0.5 * d1 * d1);
+                double nd1 = cumulativeNormal(d1);
+                double nd2 = cumulativeNormal(d2);
+
+                if (isPut) {
+                    price[i] = strike * discount * (1.0 - nd2) - spot * (1.0 - nd1);
+                    delta[i] = nd1 - 1.0;
+                    theta[i] = -spot * pdfD1 * volatility / (2.0 * sqrtT) + rate * strike * discount * (1.0 - nd2);
+                } else {
+                    price[i] = spot * nd1 - strike * discount * nd2;
+                    delta[i] = nd1;
+                    theta[i] = -spot * pdfD1 * volatility / (2.0 * sqrtT) - rate * strike * discount * nd2;
+                }
+                gamma[i] = pdfD1 / (spot * volSqrtT);
+                vega[i] = spot * pdfD1 * sqrtT;
+            }
+        });
+    }
+
+    // Black-Scholes price of a single option, for callers that need one price rather than a grid
+    public static double price(double spot, double strike, double expiry, double rate, double volatility, boolean isPut) {
+        double volSqrtT = volatility * Math.sqrt(expiry);
+        if (expiry <= 0 || volSqrtT <= 0) {
+            // Expired option is worth its intrinsic value
+            return isPut ? Math.max(strike - spot, 0.0) : Math.max(spot - strike, 0.0);
+        }
+        double d1 = (Math.log(spot / strike) + (rate + 0.5 * volatility * volatility) * expiry) / volSqrtT;
+        double d2 = d1 - volSqrtT;
+        double discount = Math.exp(-rate * expiry);
+        if (isPut) {
+            return strike * discount * (1.0 - cumulativeNormal(d2)) - spot * (1.0 - cumulativeNormal(d1));
+        }
+        return spot * cumulativeNormal(d1) - strike * discount * cumulativeNormal(d2);
+    }
+
+    // Standard normal CDF (Zelen & Severo / Abramowitz-Stegun 26.2.17, abs error < 7.5e-8)
+    public static double cumulativeNormal(double x) {
+        double t = 1.0 / (1.0 + 0.2316419 * Math.abs(x));
+        double poly = t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+        double cdf = 1.0 - INV_SQRT_2PI * Math.exp(-0.5 * x * x) * poly;
+        return x >= 0 ? cdf : 1.0 - cdf;
+    }
+
+    // Evenly spaced strikes as a fraction of spot, e.g. 0.60 to 1.05 in steps of 0.005
+    public static double[] strikeLadder(double spot, double minMoneyness, double maxMoneyness, double step) {
+        int count = (int) Math.floor((maxMoneyness - minMoneyness) / step + 1e-9) + 1;
+        double[] strikes = new double[count];
+        for (int i = 0; i < count; i++) {
+            strikes[i] = Math.round(spot * (minMoneyness + i * step));
+        }
+        return strikes;
+    }
+
+    // Weekly expiries (in years) from 1 week out to the given number of weeks
+    public static double[] weeklyExpiries(int numWeeks) {
+        double[] expiries = new double[numWeeks];
+        for (int i = 0; i < numWeeks; i++) {
+            expiries[i] = (i + 1) * 7.0 / 365.0;
+        }
+        return expiries;
+    }
+}
@@ -0,0 +1,122 @@
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Runs a walk-forward backtest for every combination of a parameter grid on one work-stealing pool.
+// All runs share the same price store and covariance cache.
+public class ParameterSweep {
+
+    private final int[] lookbacks;
+    private final double[] riskFreeRates;
+    private final int[] rebalanceMonths;
+    private final OptimizationMethod[] methods;
+
+    public ParameterSweep(int[] lookbacks, double[] riskFreeRates, int[] rebalanceMonths, OptimizationMethod[] methods) {
+        this.lookbacks = lookbacks;
+        this.riskFreeRates = riskFreeRates;
+        this.rebalanceMonths = rebalanceMonths;
+        this.methods = methods;
+    }
+
+    public int size() {
+        return lookbacks.length * riskFreeRates.length * rebalanceMonths.length * methods.length;
+    }
+
+    // Results grouped by risk-free rate and ranked by Sharpe ratio within each group, best first.
+    // Each run's Sharpe ratio is measured against its own rate, so ratios only compare at the same rate.
+    public List<SweepResult> run(AlignedPrices prices, double initialValue, int start, int end) {
+        return run(prices, initialValue, start, end, null);
+    }
+
+    // Same, reporting progress per finished run; stops early when the context is cancelled
+    public List<SweepResult> run(AlignedPrices prices, double initialValue, int start, int end, TaskContext context) {
+        CovarianceCache covarianceCache = new CovarianceCache(prices);
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<ForkJoinTask<SweepResult>> tasks = new ArrayList<>(size());
+            for (int lookback : lookbacks) {
+                for (double riskFreeRate : riskFreeRates) {
+                    for (int months : rebalanceMonths) {
+                        for (OptimizationMethod method : methods) {
+                            tasks.add(pool.submit(() -> runOne(covarianceCache, lookback, riskFreeRate, months, method, initialValue, start, end)));
+                        }
+                    }
+                }
+            }
+
+            List<SweepResult> results = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<SweepResult> task : tasks) {
+                results.add(task.join());
+                if (context != null) {
+                    context.checkCancelled();
+                    context.setProgress(100 * results.size() / tasks.size(), "Run " + results.size() + " of " + tasks.size());
+                }
+            }
+            results.sort(Comparator.comparingDouble(SweepResult::getRiskFreeRate)
+                    .thenComparing(Comparator.comparingDouble(SweepResult::getSharpeRatio).reversed()));
+            return results;
+        } finally {
+            pool.shutdownNow(); // drops runs still queued after a cancellation
+        }
+    }
+
+    private SweepResult runOne(CovarianceCache covarianceCache, int lookback, double riskFreeRate, int months,
+                               OptimizationMethod method, double initialValue, int start, int end) {
+        // The walk-forward's own parallel stream forks into this pool as well
+        WalkForwardBacktest walkForward = new WalkForwardBacktest(lookback, months, riskFreeRate, method, covarianceCache);
+        WalkForwardResult result = walkForward.run(covarianceCache.getPrices(), initialValue, start, end);
+        BacktestResult backtest = result.getBacktest();
+
+        double[] returns = backtest.getReturns();
+        double mean = 0.0;
+        for (int d = 1; d < returns.length; d++) {
+            mean += returns[d];
+        }
+        mean /= Math.max(1, returns.length - 1);
+        double variance = 0.0;
+        for (int d = 1; d < returns.length; d++) {
+            variance += (returns[d] - mean) * (returns[d] - mean);
+        }
+        variance /= Math.max(1, returns.length - 2);
+
+        double volatility = Math.sqrt(variance * 252);
+        double sharpeRatio = volatility > 0 ? (mean * 252 - riskFreeRate) / volatility : 0.0;
+        double[] values = backtest.getValues();
+        double totalReturn = values.length > 0 && values[0] > 0 ? values[values.length - 1] / values[0] - 1.0 : 0.0;
+
+        return new SweepResult(lookback, riskFreeRate, months, method, sharpeRatio, volatility, totalReturn,
+                backtest.getMaxDrawdown(), result.getAverageTurnover(), result.getFallbacks());
+    }
+
+    // Ranked comparison report for display in a JTable; ranks restart at every risk-free rate
+    public static DefaultTableModel toTableModel(List<SweepResult> results) {
+        String[] columnNames = {"Rank", "Lookback", "Risk-Free Rate", "Rebalance (Months)", "Method",
+                "Sharpe", "Volatility", "Total Return", "Max Drawdown", "Turnover", "Failed Rebalances"};
+        DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
+        int rank = 0;
+        double previousRate = Double.NaN;
+        for (SweepResult result : results) {
+            if (Double.compare(result.getRiskFreeRate(), previousRate) != 0) {
+                previousRate = result.getRiskFreeRate();
+                rank = 0;
+            }
+            tableModel.addRow(new Object[]{
+                ++rank,
+                result.getLookback(),
+                NumberFormatter.formatToPercentage(result.getRiskFreeRate()),
+                result.getRebalanceMonths(),
+                result.getMethod(),
+                String.format("%.2f", result.getSharpeRatio()),
+                NumberFormatter.formatToPercentage(result.getVolatility()),
+                NumberFormatter.formatToPercentage(result.getTotalReturn()),
+                NumberFormatter.formatToPercentage(result.getMaxDrawdown()),
+                NumberFormatter.formatToPercentage(result.getTurnover()),
+                result.getFallbacks()
+            });
+        }
+        return tableModel;
+    }
+}
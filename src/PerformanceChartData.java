@@ -0,0 +1,31 @@
+// Series computed in the background, ready to be charted on the EDT
+public class PerformanceChartData {
+
+    private final ArrayXYDataset dataset;
+    private final double minY;
+    private final double maxY;
+    private final String subtitle;
+
+    public PerformanceChartData(ArrayXYDataset dataset, double minY, double maxY, String subtitle) {
+        this.dataset = dataset;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.subtitle = subtitle;
+    }
+
+    public ArrayXYDataset getDataset() {
+        return dataset;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+}
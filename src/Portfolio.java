@@ -0,0 +1,76 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Immutable holdings (symbol -> quantity) with a version number. Edits return a new Portfolio with the
+// next version, so background computations can keep the instance they started from without copying or
+// locking, and compare versions to tell whether their result is stale.
+public final class Portfolio {
+
+    public static final Portfolio EMPTY = new Portfolio(0, Collections.emptyMap());
+
+    private final long version;
+    private final Map<String, Integer> holdings;
+
+    private Portfolio(long version, Map<String, Integer> holdings) {
+        this.version = version;
+        this.holdings = holdings;
+    }
+
+    // Adds quantity to a holding (creating it if needed)
+    public Portfolio withAdded(String stockSymbol, int quantity) {
+        Map<String, Integer> updated = new LinkedHashMap<>(holdings);
+        updated.merge(stockSymbol, quantity, Integer::sum);
+        return new Portfolio(version + 1, Collections.unmodifiableMap(updated));
+    }
+
+    // Adds several quantities at once, as a single new version
+    public Portfolio withAdded(Map<String, Integer> quantities) {
+        Map<String, Integer> updated = new LinkedHashMap<>(holdings);
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            updated.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        return new Portfolio(version + 1, Collections.unmodifiableMap(updated));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Read-only view, safe to share between threads
+    public Map<String, Integer> getHoldings() {
+        return holdings;
+    }
+
+    public Set<String> getStockSymbols() {
+        return holdings.keySet();
+    }
+
+    public int getQuantity(String stockSymbol) {
+        return holdings.getOrDefault(stockSymbol, 0);
+    }
+
+    public boolean isEmpty() {
+        return holdings.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Portfolio)) return false;
+        Portfolio other = (Portfolio) o;
+        return version == other.version && holdings.equals(other.holdings);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, holdings);
+    }
+
+    @Override
+    public String toString() {
+        return "Portfolio{version=" + version + ", holdings=" + holdings + '}';
+    }
+}
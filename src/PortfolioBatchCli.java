@@ -0,0 +1,359 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless entry point for scheduled jobs: runs optimization, betas, risk and backtests over
+// portfolio files and writes one JSON document. Never touches AWT/Swing.
+//
+// java PortfolioBatchCli [options] <portfolio file>...
+public class PortfolioBatchCli {
+
+    private static final double[] SCENARIOS = {-0.5, -0.4, -0.3, -0.2, -0.1, 0.1, 0.2, 0.3, 0.4, 0.5};
+
+    private Set<String> tasks = new LinkedHashSet<>(Arrays.asList("optimize", "betas", "risk", "backtest"));
+    private double riskFreeRate = 0.02;
+    private double maxLossFraction = 0.20;
+    private OptimizationMethod method = OptimizationMethod.NELDER_MEAD;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Path outputPath;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean recordTrace;
+    private final List<Path> portfolioFiles = new ArrayList<>();
+
+    // Market data shared by every portfolio of the run
+    private Map<String, PriceSeries> stockDataMap;
+    private PriceSeries spxData;
+    private PriceSnapshot snapshot;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        // stdout carries only the JSON result; progress and debug prints from the analytics go to stderr
+        PrintStream jsonOut = System.out;
+        System.setOut(System.err);
+
+        PortfolioBatchCli cli = new PortfolioBatchCli();
+        try {
+            cli.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+        System.exit(cli.run(jsonOut));
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: java PortfolioBatchCli [options] <portfolio file>...");
+        System.err.println("  Portfolio files are CSV (symbol,quantity) or JSON ({\"AAPL\": 100} or [{\"symbol\": \"AAPL\", \"quantity\": 100}])");
+        System.err.println("  --tasks optimize,betas,risk,backtest   analytics to run (default: all)");
+        System.err.println("  --rf <rate>                            risk-free rate (default: 0.02)");
+        System.err.println("  --max-loss <fraction>                  loss cap for the SPX put hedge (default: 0.20)");
+        StringBuilder methods = new StringBuilder();
+        for (OptimizationMethod method : OptimizationMethod.values()) {
+            methods.append(methods.length() == 0 ? "" : "|").append(method.name());
+        }
+        System.err.println("  --method " + methods + "             optimizer (default: NELDER_MEAD)");
+        System.err.println("  --from <yyyy-MM-dd> --to <yyyy-MM-dd>  backtest range (default: full history)");
+        System.err.println("  --out <file>                           output file (default: stdout)");
+        System.err.println("  --threads <n>                          portfolios processed in parallel");
+        System.err.println("  --trace                                include the optimizer's objective value per evaluation");
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                portfolioFiles.add(Paths.get(arg));
+                continue;
+            }
+            if (arg.equals("--trace")) {
+                recordTrace = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--tasks":
+                        tasks = new LinkedHashSet<>(Arrays.asList(value.split(",")));
+                        break;
+                    case "--rf":
+                        riskFreeRate = Double.parseDouble(value);
+                        break;
+                    case "--max-loss":
+                        maxLossFraction = Double.parseDouble(value);
+                        break;
+                    case "--method":
+                        method = parseMethod(value);
+                        break;
+                    case "--from":
+                        fromDate = LocalDate.parse(value);
+                        break;
+                    case "--to":
+                        toDate = LocalDate.parse(value);
+                        break;
+                    case "--out":
+                        outputPath = Paths.get(value);
+                        break;
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid value for " + arg + ": " + value);
+            }
+        }
+        if (portfolioFiles.isEmpty()) {
+            throw new IllegalArgumentException("No portfolio files given");
+        }
+        for (String task : tasks) {
+            if (!Arrays.asList("optimize", "betas", "risk", "backtest").contains(task)) {
+                throw new IllegalArgumentException("Unknown task " + task);
+            }
+        }
+    }
+
+    private static OptimizationMethod parseMethod(String value) {
+        for (OptimizationMethod candidate : OptimizationMethod.values()) {
+            if (candidate.name().equalsIgnoreCase(value)) return candidate;
+        }
+        throw new IllegalArgumentException("Invalid value for --method: " + value);
+    }
+
+    // Returns the process exit code: 0 if every portfolio succeeded, 1 otherwise
+    private int run(PrintStream jsonOut) {
+        // Read every portfolio first so market data is loaded once for the union of symbols
+        PortfolioFileReader reader = new PortfolioFileReader();
+        Map<Path, Map<String, Integer>> portfolios = new HashMap<>();
+        Map<Path, String> errors = new HashMap<>();
+        Set<String> allSymbols = new LinkedHashSet<>();
+        for (Path file : portfolioFiles) {
+            try {
+                Map<String, Integer> portfolio = reader.read(file);
+                portfolios.put(file, portfolio);
+                allSymbols.addAll(portfolio.keySet());
+            } catch (NoSuchFileException e) {
+                errors.put(file, "File not found");
+            } catch (IOException e) {
+                errors.put(file, e.getMessage());
+            }
+        }
+
+        try (QueryTracer.Action ignored = QueryTracer.action("load")) {
+            StockDataService stockDataService = new StockDataService();
+            stockDataMap = stockDataService.getClosePrices(allSymbols);
+            spxData = tasks.contains("betas") || tasks.contains("risk") ? stockDataService.getSpxData() : PriceSeries.EMPTY;
+            snapshot = new ValuationService().snapshot(allSymbols);
+        }
+
+        // Each portfolio renders its own JSON fragment; fragments are written in input order
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> fragments = new ArrayList<>();
+        for (Path file : portfolioFiles) {
+            fragments.add(executor.submit(() -> analyze(file, portfolios.get(file), errors.get(file))));
+        }
+
+        boolean failed = !errors.isEmpty();
+        try (Writer out = outputPath != null
+                ? Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(jsonOut, StandardCharsets.UTF_8))) {
+            out.write("{\"riskFreeRate\":" + riskFreeRate + ",\"method\":\"" + method.name() + "\",\"portfolios\":[");
+            for (int i = 0; i < fragments.size(); i++) {
+                String fragment;
+                try {
+                    fragment = fragments.get(i).get();
+                } catch (Exception e) {
+                    failed = true;
+                    StringWriter errorFragment = new StringWriter();
+                    JsonWriter json = new JsonWriter(errorFragment);
+                    json.beginObject().name("file").value(portfolioFiles.get(i).toString())
+                            .name("error").value(String.valueOf(e.getCause() != null ? e.getCause() : e)).endObject();
+                    fragment = errorFragment.toString();
+                }
+                if (i > 0) out.write(',');
+                out.write(fragment);
+            }
+            out.write("]}");
+            out.write(System.lineSeparator());
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            failed = true;
+        } finally {
+            executor.shutdown();
+        }
+        return failed ? 1 : 0;
+    }
+
+    private String analyze(Path file, Map<String, Integer> portfolio, String readError) throws IOException {
+        StringWriter fragment = new StringWriter();
+        JsonWriter json = new JsonWriter(fragment);
+        json.beginObject().name("file").value(file.toString());
+        if (readError != null) {
+            json.name("error").value(readError).endObject();
+            return fragment.toString();
+        }
+
+        Map<String, PriceSeries> portfolioData = new HashMap<>();
+        Map<String, Double> notionals = new HashMap<>();
+        for (String stockSymbol : portfolio.keySet()) {
+            PriceSeries prices = stockDataMap.get(stockSymbol);
+            if (prices != null && !prices.isEmpty()) {
+                portfolioData.put(stockSymbol, prices);
+                notionals.put(stockSymbol, portfolio.get(stockSymbol) * snapshot.getPrice(stockSymbol));
+            }
+        }
+        double totalNotional = snapshot.getNotional(portfolio);
+
+        json.name("holdings").numberMap(portfolio);
+        json.name("notional").value(totalNotional);
+        Set<String> missing = new LinkedHashSet<>(portfolio.keySet());
+        missing.removeAll(portfolioData.keySet());
+        if (!missing.isEmpty()) {
+            json.name("missingSymbols").beginArray();
+            for (String stockSymbol : missing) json.value(stockSymbol);
+            json.endArray();
+        }
+        if (portfolioData.isEmpty()) {
+            json.name("error").value("No stock data available.").endObject();
+            return fragment.toString();
+        }
+
+        // Optimization (also needed for the optimized side of the risk report)
+        Map<String, Double> optimizedWeights = null;
+        if (tasks.contains("optimize") || tasks.contains("risk")) {
+            PortfolioOptimizer optimizer = new PortfolioOptimizer();
+            ReturnStatistics statistics = optimizer.computeStatistics(portfolioData);
+            OptimizationResult result = optimizer.run(statistics, riskFreeRate, method, recordTrace);
+            optimizedWeights = result.getWeights();
+
+            if (tasks.contains("optimize")) {
+                Map<String, Double> userWeights = new HashMap<>();
+                for (Map.Entry<String, Double> entry : notionals.entrySet()) {
+                    userWeights.put(entry.getKey(), totalNotional > 0 ? entry.getValue() / totalNotional : 0.0);
+                }
+                json.name("optimization").beginObject()
+                        .name("weights").numberMap(optimizedWeights)
+                        .name("userVolatility").value(RiskDecomposition.compute(statistics, userWeights).getVolatility())
+                        .name("optimizedVolatility").value(RiskDecomposition.compute(statistics, optimizedWeights).getVolatility())
+                        .name("converged").value(result.isConverged())
+                        .name("leveraged").value(result.isLeveraged())
+                        .name("iterations").value(result.getIterations())
+                        .name("evaluations").value(result.getEvaluations())
+                        .name("maxEvaluations").value(result.getMaxEvaluations())
+                        .name("wallTimeMs").value(result.getWallTimeMillis())
+                        .name("sharpe").value(result.getSharpeRatio());
+                if (result.getTrace() != null) {
+                    json.name("trace").beginArray();
+                    for (double value : result.getTrace()) json.value(value);
+                    json.endArray();
+                }
+                json.endObject();
+            }
+        }
+
+        // Betas (RiskMgmtPanel's analytics do not touch its UI)
+        Map<String, Double> betas = null;
+        RiskMgmtPanel riskAnalytics = new RiskMgmtPanel(null);
+        if (tasks.contains("betas") || tasks.contains("risk")) {
+            betas = riskAnalytics.computeBetas(portfolioData, spxData);
+            if (tasks.contains("betas")) {
+                json.name("betas").numberMap(betas);
+            }
+        }
+
+        if (tasks.contains("risk")) {
+            Map<String, Double> optimizedNotionals = new HashMap<>();
+            for (Map.Entry<String, Double> entry : optimizedWeights.entrySet()) {
+                optimizedNotionals.put(entry.getKey(), entry.getValue() * totalNotional);
+            }
+            json.name("risk").beginObject();
+            writeRisk(json.name("original"), riskAnalytics.computeDelta(notionals, betas), totalNotional);
+            writeRisk(json.name("optimized"), riskAnalytics.computeDelta(optimizedNotionals, betas), totalNotional);
+            json.endObject();
+        }
+
+        if (tasks.contains("backtest")) {
+            AlignedPrices prices = AlignedPrices.fromPriceSeries(portfolioData);
+            int[] days = prices.getDays();
+            LocalDate from = fromDate != null ? fromDate : EpochDays.toLocalDate(days[0]);
+            LocalDate to = toDate != null ? toDate : EpochDays.toLocalDate(days[days.length - 1]);
+            BacktestResult result = new BacktestEngine().run(prices, portfolio, from, to);
+            writeBacktest(json.name("backtest"), result);
+        }
+
+        json.endObject();
+        return fragment.toString();
+    }
+
+    private void writeRisk(JsonWriter json, double delta, double totalNotional) throws IOException {
+        json.beginObject().name("delta").value(delta);
+        json.name("scenarios").beginArray();
+        for (double spxMove : SCENARIOS) {
+            json.beginObject().name("spxMove").value(spxMove).name("pnl").value(delta * spxMove).endObject();
+        }
+        json.endArray();
+
+        // No hedge without SPX history to price it
+        double spot = HedgeOptimizer.latestLevel(spxData);
+        double volatility = HedgeOptimizer.estimateVolatility(spxData, 252);
+        OptionHedge hedge = spot > 0 && volatility > 0
+                ? new HedgeOptimizer().findCheapestPutHedge(delta, maxLossFraction * totalNotional, spot, riskFreeRate, volatility,
+                        OptionPricer.strikeLadder(spot, 0.60, 1.05, 0.005), OptionPricer.weeklyExpiries(104))
+                : null;
+        json.name("hedge");
+        if (hedge == null) {
+            json.nullValue();
+        } else {
+            json.beginObject()
+                    .name("strike").value(hedge.getStrike())
+                    .name("expiry").value(hedge.getExpiry())
+                    .name("contracts").value(hedge.getContracts())
+                    .name("premium").value(hedge.getPremium())
+                    .name("totalCost").value(hedge.getTotalCost())
+                    .endObject();
+        }
+        json.endObject();
+    }
+
+    private void writeBacktest(JsonWriter json, BacktestResult result) throws IOException {
+        json.beginObject().name("days").value(result.size());
+        if (result.size() > 0) {
+            double[] values = result.getValues();
+            json.name("from").value(EpochDays.toLocalDate(result.getDays()[0]).toString())
+                    .name("to").value(EpochDays.toLocalDate(result.getDays()[result.size() - 1]).toString())
+                    .name("startValue").value(values[0])
+                    .name("endValue").value(values[values.length - 1])
+                    .name("totalReturn").value(result.getTotalReturn())
+                    .name("volatility").value(result.getVolatility())
+                    .name("maxDrawdown").value(result.getMaxDrawdown());
+        }
+        json.endObject();
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads symbol/quantity holdings from a portfolio file.
+// CSV: "symbol,quantity" per line, optional header line.
+// JSON: {"AAPL": 100, ...} or [{"symbol": "AAPL", "quantity": 100}, ...]
+public class PortfolioFileReader {
+
+    public Map<String, Integer> read(Path path) throws IOException {
+        return parse(new String(Files.readAllBytes(path), StandardCharsets.UTF_8), path.toString());
+    }
+
+    // Same formats from a string, e.g. a request body; source names the input in error messages
+    public Map<String, Integer> parse(String content, String source) throws IOException {
+        content = content.trim();
+        if (content.startsWith("{") || content.startsWith("[")) {
+            return readJson(content, source);
+        }
+        return readCsv(Arrays.asList(content.split("\\r?\\n")), source);
+    }
+
+    private Map<String, Integer> readCsv(List<String> lines, String path) throws IOException {
+        Map<String, Integer> portfolio = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] values = line.split(",");
+            if (values.length < 2) {
+                throw new IOException(path + ":" + (i + 1) + ": expected symbol,quantity");
+            }
+            String quantity = values[1].trim();
+            if (i == 0 && !quantity.matches("-?\\d+(\\.\\d+)?")) continue; // header
+            try {
+                add(portfolio, values[0].trim(), Double.parseDouble(quantity));
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ":" + (i + 1) + ": invalid quantity " + quantity);
+            }
+        }
+        return portfolio;
+    }
+
+    private Map<String, Integer> readJson(String content, String path) throws IOException {
+        Map<String, Integer> portfolio = new LinkedHashMap<>();
+        JsonTokens tokens = new JsonTokens(content, path);
+        if (tokens.peek() == '{') {
+            // {"AAPL": 100, ...}
+            tokens.expect('{');
+            while (tokens.peek() != '}') {
+                String symbol = tokens.string();
+                tokens.expect(':');
+                add(portfolio, symbol, tokens.number());
+                if (tokens.peek() == ',') tokens.expect(',');
+            }
+            tokens.expect('}');
+        } else {
+            // [{"symbol": "AAPL", "quantity": 100}, ...]
+            tokens.expect('[');
+            while (tokens.peek() != ']') {
+                tokens.expect('{');
+                String symbol = null;
+                double quantity = Double.NaN;
+                while (tokens.peek() != '}') {
+                    String name = tokens.string();
+                    tokens.expect(':');
+                    if (name.equals("symbol")) {
+                        symbol = tokens.string();
+                    } else if (name.equals("quantity")) {
+                        quantity = tokens.number();
+                    } else {
+                        throw new IOException(path + ": unexpected field " + name);
+                    }
+                    if (tokens.peek() == ',') tokens.expect(',');
+                }
+                tokens.expect('}');
+                if (symbol == null || Double.isNaN(quantity)) {
+                    throw new IOException(path + ": each holding needs a symbol and a quantity");
+                }
+                add(portfolio, symbol, quantity);
+                if (tokens.peek() == ',') tokens.expect(',');
+            }
+            tokens.expect(']');
+        }
+        return portfolio;
+    }
+
+    private static void add(Map<String, Integer> portfolio, String symbol, double quantity) {
+        portfolio.merge(symbol, (int) Math.round(quantity), Integer::sum);
+    }
+
+    // Just enough of a JSON tokenizer for the two portfolio shapes above
+    private static class JsonTokens {
+        private final String text;
+        private final String path;
+        private int position;
+
+        JsonTokens(String text, String path) {
+            this.text = text;
+            this.path = path;
+        }
+
+        char peek() throws IOException {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+            if (position >= text.length()) throw new IOException(path + ": unexpected end of file");
+            return text.charAt(position);
+        }
+
+        void expect(char c) throws IOException {
+            if (peek() != c) throw new IOException(path + ": expected '" + c + "' at offset " + position);
+            position++;
+        }
+
+        String string() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (position < text.length() && text.charAt(position) != '"') {
+                char c = text.charAt(position++);
+                if (c == '\\' && position < text.length()) c = text.charAt(position++);
+                sb.append(c);
+            }
+            expect('"');
+            return sb.toString();
+        }
+
+        double number() throws IOException {
+            peek();
+            int start = position;
+            while (position < text.length() && "+-.eE0123456789".indexOf(text.charAt(position)) >= 0) position++;
+            try {
+                return Double.parseDouble(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ": expected a number at offset " + start);
+            }
+        }
+    }
+}
@@ -1,153 +1,205 @@
 
 
 import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
+import org.apache.commons.math3.exception.TooManyIterationsException;
 import org.apache.commons.math3.linear.*;
 import org.apache.commons.math3.optim.*;
 import org.apache.commons.math3.optim.linear.*;
 import org.apache.commons.math3.optim.nonlinear.scalar.*;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.PowellOptimizer;
 import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.DoubleBuffer;
 import java.util.*;
+import java.util.stream.IntStream;
 
 
 public class PortfolioOptimizer {
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
-    public Map<String, Double> computeEfficientFrontier(Map<String, Map<Date, Double>> stockDataMap, double riskFreeRate) {
-        List<String> stockSymbols = new ArrayList<>(stockDataMap.keySet());
-        int numStocks = stockSymbols.size();
-        
-        // Define a number of recent data points to keep
-        final int MAX_POINTS = 756; // 3 year historical data - 252 trading day each year
-
-        // Fetch all dates and limit each stock to the most recent MAX_POINTS data points
-        Map<Date, Integer> dateIndexMap = new TreeMap<>(); // Store date and corresponding index
-        List<Map<Date, Double>> alignedStockData = new ArrayList<>(numStocks);
-        for (String symbol : stockSymbols) {
-            Map<Date, Double> priceData = stockDataMap.get(symbol);
-            if (priceData == null) continue;
-
-            // Get recent dates for the stock
-            List<Date> recentDates = new ArrayList<>(priceData.keySet());
-            recentDates.sort(Comparator.reverseOrder()); // Sort descending
-            if (recentDates.size() > MAX_POINTS) {
-                recentDates = recentDates.subList(0, MAX_POINTS);
-            }
+    public Map<String, Double> computeEfficientFrontier(Map<String, PriceSeries> stockDataMap, double riskFreeRate) {
+        return optimize(computeStatistics(stockDataMap), riskFreeRate);
+    }
 
-            // Ensure alignment of dates
-            for (Date date : recentDates) {
-                dateIndexMap.putIfAbsent(date, dateIndexMap.size()); // Assign index
-            }
+    public Map<String, Double> computeEfficientFrontier(Map<String, PriceSeries> stockDataMap, double riskFreeRate, OptimizationMethod method) {
+        return optimize(computeStatistics(stockDataMap), riskFreeRate, method);
+    }
 
-            Map<Date, Double> limitedPriceData = new LinkedHashMap<>();
-            for (Date date : recentDates) {
-                limitedPriceData.put(date, priceData.get(date));
-            }
+    // Optimize from previously estimated statistics, so the same estimate can be shared with risk reports
+    public Map<String, Double> optimize(ReturnStatistics statistics, double riskFreeRate) {
+        return optimize(statistics, riskFreeRate, OptimizationMethod.NELDER_MEAD);
+    }
 
-            alignedStockData.add(limitedPriceData);
+    // Weights of a converged run; throws IllegalStateException if the optimizer ran out of evaluations
+    // or only found a long/short solution
+    public Map<String, Double> optimize(ReturnStatistics statistics, double riskFreeRate, OptimizationMethod method) {
+        OptimizationResult result = run(statistics, riskFreeRate, method, false);
+        if (result.isLeveraged()) {
+            throw new IllegalStateException("The optimizer found no long-only portfolio for " + statistics.size() + " stocks: " + result);
+        }
+        if (!result.isConverged()) {
+            throw new IllegalStateException("The optimizer did not converge for " + statistics.size() + " stocks: " + result);
         }
+        return result.getWeights();
+    }
 
-        // Create aligned returns data
-        List<List<Double>> returnsData = new ArrayList<>(numStocks);
-        for (Map<Date, Double> stockData : alignedStockData) {
-            List<Double> returns = new ArrayList<>();
-            List<Date> dates = new ArrayList<>(stockData.keySet());
-            dates.sort(Comparator.naturalOrder());
-
-            for (int i = 1; i < dates.size(); i++) {
-                double previousPrice = stockData.get(dates.get(i - 1));
-                double currentPrice = stockData.get(dates.get(i));
-                double returnValue = (currentPrice - previousPrice) / previousPrice;
-                returns.add(returnValue);
+    // Full result with convergence statistics; the weights of a run that did not converge are the best point found
+    public OptimizationResult run(ReturnStatistics statistics, double riskFreeRate, OptimizationMethod method, boolean recordTrace) {
+        OptimizationResult result;
+        try (Metrics.Stopwatch ignored = Metrics.time("optimizer.optimize")) {
+            if (method == OptimizationMethod.HRP || method == OptimizationMethod.MIN_VARIANCE || method == OptimizationMethod.ERC) {
+                result = allocate(statistics, riskFreeRate, method);
+            } else {
+                RealMatrix covarianceMatrix = MatrixUtils.createRealMatrix(statistics.getCovariance());
+                RealVector meanReturnsVector = new ArrayRealVector(statistics.getMeanReturns());
+                result = optimizePortfolio(covarianceMatrix, meanReturnsVector, statistics.getStockSymbols(), riskFreeRate, method, recordTrace);
             }
+        }
+
+        Metrics.counter("optimizer.runs").increment();
+        if (!result.isConverged()) {
+            Metrics.counter("optimizer.notConverged").increment();
+        }
+        Metrics.histogram("optimizer.evaluations").update(result.getEvaluations());
+        Metrics.histogram("optimizer.iterations").update(result.getIterations());
+        return result;
+    }
 
-            returnsData.add(returns);
+    // Mean returns and covariance matrix of the aligned daily returns
+    public ReturnStatistics computeStatistics(Map<String, PriceSeries> stockDataMap) {
+        try (Metrics.Stopwatch ignored = Metrics.time("optimizer.statistics");
+             OffHeapArena arena = OffHeapArena.open()) {
+            return computeStatistics(stockDataMap, arena);
         }
+    }
+
+    private ReturnStatistics computeStatistics(Map<String, PriceSeries> stockDataMap, OffHeapArena arena) {
+        List<String> stockSymbols = new ArrayList<>(stockDataMap.keySet());
+        int numStocks = stockSymbols.size();
+        
+        // Define a number of recent data points to keep
+        final int MAX_POINTS = 756; // 3 year historical data - 252 trading day each year
 
-        // Ensure all return lists have the same length
-        int returnsSize = returnsData.get(0).size();
-        for (List<Double> returns : returnsData) {
-            if (returns.size() != returnsSize) {
+        // Each stock's returns over its most recent MAX_POINTS prices; all return lists must have the same length
+        int returnsSize = -1;
+        for (String symbol : stockSymbols) {
+            int size = Math.max(0, Math.min(MAX_POINTS, priceSeries(stockDataMap, symbol).size()) - 1);
+            if (returnsSize >= 0 && size != returnsSize) {
                 throw new IllegalArgumentException("All return lists must have the same length.");
             }
+            returnsSize = size;
         }
 
-        // Convert returns data to matrix
-        double[][] returnsArray = new double[numStocks][returnsSize];
+        // Returns matrix, one row per stock, kept off the heap
+        OffHeapMatrix returns = arena.allocate(numStocks, returnsSize);
         for (int i = 0; i < numStocks; i++) {
-            returnsArray[i] = returnsData.get(i).stream().mapToDouble(d -> d).toArray();
+            computeReturns(priceSeries(stockDataMap, stockSymbols.get(i)), MAX_POINTS, returns, i);
         }
-        RealMatrix returnsMatrix = MatrixUtils.createRealMatrix(returnsArray);
-        
-        //System.out.println("Returns Matrix: " + returnsMatrix);
-        
-        // Compute covariance matrix
-        RealMatrix covarianceMatrix = calculateCovarianceMatrix(returnsMatrix);
-        
-        //System.out.println("Covariance Matrix: " + covarianceMatrix);
-        //System.out.println("Returns Matrix Dimensions: " + returnsMatrix.getRowDimension() + "x" + returnsMatrix.getColumnDimension());
-        //System.out.println("Covariance Matrix Dimensions: " + covarianceMatrix.getRowDimension() + "x" + covarianceMatrix.getColumnDimension());
 
-        
-        // Compute mean returns
-        double[] meanReturns = new double[numStocks];
-        for (int i = 0; i < numStocks; i++) {
-            meanReturns[i] = returnsData.get(i).stream().mapToDouble(d -> d).average().orElse(0.0);
-        }
-        RealVector meanReturnsVector = new ArrayRealVector(meanReturns);
+        return new ReturnStatistics(stockSymbols, rowMeans(returns), covariance(returns));
+    }
 
-        // Define optimization problem
-        return optimizePortfolio(covarianceMatrix, meanReturnsVector, stockSymbols, riskFreeRate);
+    private static PriceSeries priceSeries(Map<String, PriceSeries> stockDataMap, String symbol) {
+        PriceSeries priceData = stockDataMap.get(symbol);
+        return priceData != null ? priceData : PriceSeries.EMPTY;
     }
 
+    // Same estimate from aligned prices, using only the lookback window of days strictly before endIndex.
+    // Stocks without a full price history in the window are left out.
+    public ReturnStatistics computeStatistics(AlignedPrices prices, int endIndex, int lookback) {
+        int start = Math.max(0, endIndex - lookback);
+        int returnsSize = endIndex - start - 1;
+        if (returnsSize < 1) {
+            throw new IllegalArgumentException("Not enough history before the estimation date.");
+        }
+
+        List<String> stockSymbols = new ArrayList<>();
+        try (OffHeapArena arena = OffHeapArena.open()) {
+            OffHeapMatrix returns = windowReturns(prices, start, returnsSize, stockSymbols, arena);
+            return new ReturnStatistics(stockSymbols, rowMeans(returns), covariance(returns));
+        }
+    }
 
-    private List<Double> computeReturns(Map<Date, Double> priceData) {
-        List<Double> returns = new ArrayList<>();
-        List<Date> dates = new ArrayList<>(priceData.keySet());
-        dates.sort(Comparator.naturalOrder());
+    // Daily returns over the returnsSize days after start, for the stocks listed for the whole window,
+    // in an off-heap matrix from the given arena. Their symbols are appended to stockSymbols, in the same
+    // order as the rows.
+    public static OffHeapMatrix windowReturns(AlignedPrices prices, int start, int returnsSize, List<String> stockSymbols, OffHeapArena arena) {
+        List<Integer> listed = new ArrayList<>();
+        for (int s = 0; s < prices.numSymbols(); s++) {
+            if (!Double.isNaN(prices.getCloses(s)[start])) listed.add(s); // listed for the whole window
+        }
+        if (listed.isEmpty()) {
+            throw new IllegalArgumentException("No stock has a full price history in the estimation window.");
+        }
 
-        for (int i = 1; i < dates.size(); i++) {
-            double previousPrice = priceData.get(dates.get(i - 1));
-            double currentPrice = priceData.get(dates.get(i));
-            double returnValue = (currentPrice - previousPrice) / previousPrice;
-            returns.add(returnValue);
+        OffHeapMatrix returns = arena.allocate(listed.size(), returnsSize);
+        for (int i = 0; i < listed.size(); i++) {
+            int s = listed.get(i);
+            double[] closes = prices.getCloses(s);
+            DoubleBuffer row = returns.block(i);
+            int base = returns.offset(i);
+            for (int d = 0; d < returnsSize; d++) {
+                row.put(base + d, (closes[start + d + 1] - closes[start + d]) / closes[start + d]);
+            }
+            stockSymbols.add(prices.getStockSymbols().get(s));
         }
-        
         return returns;
     }
 
-    private RealMatrix calculateCovarianceMatrix(RealMatrix returnsMatrix) {
-        // Print dimensions to debug
-        //System.out.println("Returns Matrix Dimensions: " + returnsMatrix.getRowDimension() + "x" + returnsMatrix.getColumnDimension());
-
-        // Calculate the covariance matrix
-        RealMatrix covarianceMatrix = returnsMatrix.multiply(returnsMatrix.transpose())
-            .scalarMultiply(1.0 / (returnsMatrix.getRowDimension() - 1));
+    // Daily returns over the last maxPoints prices of a series, written into a row of the returns matrix
+    private void computeReturns(PriceSeries priceData, int maxPoints, OffHeapMatrix returns, int row) {
+        double[] closes = priceData.getCloses();
+        int start = Math.max(0, closes.length - maxPoints);
+        DoubleBuffer block = returns.block(row);
+        int base = returns.offset(row);
+        for (int i = 0; i < returns.columns(); i++) {
+            double previousPrice = closes[start + i];
+            double currentPrice = closes[start + i + 1];
+            block.put(base + i, (currentPrice - previousPrice) / previousPrice);
+        }
+    }
 
-        // Print the covariance matrix to debug
-        // System.out.println("Covariance Matrix Dimensions: " + covarianceMatrix.getRowDimension() + "x" + covarianceMatrix.getColumnDimension());
-        /* System.out.println("Covariance Matrix:");
-        for (int i = 0; i < covarianceMatrix.getRowDimension(); i++) {
-            System.out.println(Arrays.toString(covarianceMatrix.getRow(i)));
-        }*/
-    
+    // Covariance kernel: sample covariance of the daily returns, one row per stock, over returns.columns()
+    // observations, as (x . y - T * mean(x) * mean(y)) / (T - 1). Rows of the upper triangle run in parallel.
+    public static double[][] covariance(OffHeapMatrix returns) {
+        int n = returns.rows();
+        int observations = returns.columns();
+        double[] means = rowMeans(returns);
+        double[][] covariance = new double[n][n];
+        double scale = observations > 1 ? 1.0 / (observations - 1) : 0.0;
+        IntStream.range(0, n).parallel().forEach(i -> {
+            for (int j = i; j < n; j++) {
+                double value = (returns.dotRows(i, returns, j) - observations * means[i] * means[j]) * scale;
+                covariance[i][j] = value;
+                covariance[j][i] = value;
+            }
+        });
+        return covariance;
+    }
 
-        return covarianceMatrix;
+    // Mean of each row
+    public static double[] rowMeans(OffHeapMatrix returns) {
+        double[] means = new double[returns.rows()];
+        for (int i = 0; i < means.length; i++) {
+            DoubleBuffer row = returns.block(i);
+            int base = returns.offset(i);
+            double sum = 0.0;
+            for (int d = 0; d < returns.columns(); d++) {
+                sum += row.get(base + d);
+            }
+            means[i] = returns.columns() > 0 ? sum / returns.columns() : 0.0;
+        }
+        return means;
     }
 
 
 
-    private Map<String, Double> optimizePortfolio(RealMatrix covarianceMatrix, RealVector meanReturnsVector, List<String> stockSymbols, double riskFreeRate) {
+    private OptimizationResult optimizePortfolio(RealMatrix covarianceMatrix, RealVector meanReturnsVector, List<String> stockSymbols,
+                                                 double riskFreeRate, OptimizationMethod method, boolean recordTrace) {
+        long start = System.nanoTime();
         int numStocks = meanReturnsVector.getDimension();
-        System.out.println("numStocks: " + numStocks);
+        Metrics.histogram("optimizer.numStocks").update(numStocks);
         
         if (stockSymbols.isEmpty()) {
             throw new IllegalArgumentException("Stock symbols list cannot be empty.");
@@ -158,7 +210,7 @@ public class PortfolioOptimizer {
         
 
         // Define the objective function (negative Sharpe ratio to maximize)
-        MultivariateFunction objectiveFunction = weights -> {
+        MultivariateFunction sharpeObjective = weights -> {
             RealVector weightsVector = new ArrayRealVector(weights);
             double portfolioReturns = meanReturnsVector.dotProduct(weightsVector);
             RealMatrix portfolioCovariance = covarianceMatrix.multiply(weightsVector.outerProduct(weightsVector));
@@ -167,9 +219,10 @@ public class PortfolioOptimizer {
             return -sharpeRatio; // negate and then set goal to be minimizing
         };
 
+        // Keeps the best point seen, so a run that exhausts its budget still has an answer, and the trace
+        ObjectiveTrace objectiveFunction = new ObjectiveTrace(sharpeObjective, recordTrace);
+
         
-        // Define the optimizer
-        MultivariateOptimizer optimizer = new SimplexOptimizer(1e-10, 1e-30);
         // Increase the maximum number of evaluations and iterations
         int maxEvaluations = 1000;
         int maxIterations = 1000;
@@ -179,25 +232,158 @@ public class PortfolioOptimizer {
         Arrays.fill(initialGuess, 1.0 / numStocks);
 
         // Perform the optimization
-        PointValuePair result = optimizer.optimize(
-            new MaxEval(maxEvaluations),  // Increase the maximum number of evaluations
-            new MaxIter(maxIterations),   // Increase the maximum number of iterations
-            new ObjectiveFunction(objectiveFunction),
-            new InitialGuess(initialGuess),
-            GoalType.MINIMIZE,
-            new NelderMeadSimplex(numStocks)
-        );
+        MultivariateOptimizer optimizer;
+        OptimizationData[] optimizationData;
+        if (method == OptimizationMethod.POWELL) {
+            optimizer = new PowellOptimizer(1e-10, 1e-30);
+            optimizationData = new OptimizationData[]{
+                new MaxEval(maxEvaluations),
+                new MaxIter(maxIterations),
+                new ObjectiveFunction(objectiveFunction),
+                new InitialGuess(initialGuess),
+                GoalType.MINIMIZE
+            };
+        } else {
+            // Define the optimizer
+            optimizer = new SimplexOptimizer(1e-10, 1e-30);
+            optimizationData = new OptimizationData[]{
+                new MaxEval(maxEvaluations),  // Increase the maximum number of evaluations
+                new MaxIter(maxIterations),   // Increase the maximum number of iterations
+                new ObjectiveFunction(objectiveFunction),
+                new InitialGuess(initialGuess),
+                GoalType.MINIMIZE,
+                new NelderMeadSimplex(numStocks)
+            };
+        }
+
+        double[] weightsArray;
+        boolean converged;
+        try {
+            weightsArray = optimizer.optimize(optimizationData).getPoint();
+            converged = true;
+        } catch (TooManyEvaluationsException | TooManyIterationsException e) {
+            weightsArray = objectiveFunction.getBestPoint();
+            converged = false;
+        }
 
         // Retrieve optimal weights
-        double[] weightsArray = result.getPoint();
         Map<String, Double> weightsMap = new HashMap<>();
         double totalWeight = Arrays.stream(weightsArray).sum();
+        double[] normalizedWeights = new double[numStocks];
 
         for (int i = 0; i < numStocks; i++) {
-            weightsMap.put(stockSymbols.get(i), weightsArray[i] / totalWeight); // Normalize weights
+            normalizedWeights[i] = weightsArray[i] / totalWeight; // Normalize weights
+            weightsMap.put(stockSymbols.get(i), normalizedWeights[i]);
+        }
+
+        // The search is unconstrained. Normalizing by a sum near zero (long and short legs cancelling) does not
+        // give a usable portfolio, and negative weights make a leveraged long/short book, not the long-only
+        // allocation the callers expect; neither counts as converged
+        double sharpeRatio = -sharpeObjective.value(normalizedWeights);
+        boolean leveraged = false;
+        for (double weight : normalizedWeights) {
+            leveraged |= weight < -1e-9;
+        }
+        if (Math.abs(totalWeight) < 1e-9 || Double.isNaN(sharpeRatio) || leveraged) {
+            converged = false;
+        }
+        if (leveraged) {
+            Metrics.counter("optimizer.leveraged").increment();
+        }
+
+        // The counter also counts the attempt that hit the budget, which was never evaluated
+        int evaluations = Math.min(optimizer.getEvaluations(), maxEvaluations);
+        return new OptimizationResult(weightsMap, method, optimizer.getIterations(), evaluations, maxEvaluations,
+                System.nanoTime() - start, sharpeRatio, converged, leveraged, objectiveFunction.getTrace());
+    }
+
+    // Risk-based allocations that need no search over the Sharpe ratio. HRP is closed form (no iterations);
+    // minimum variance and ERC report coordinate descent sweeps as iterations and coordinate steps as evaluations.
+    private OptimizationResult allocate(ReturnStatistics statistics, double riskFreeRate, OptimizationMethod method) {
+        long start = System.nanoTime();
+        List<String> stockSymbols = statistics.getStockSymbols();
+        if (stockSymbols.isEmpty()) {
+            throw new IllegalArgumentException("Stock symbols list cannot be empty.");
+        }
+        Metrics.histogram("optimizer.numStocks").update(stockSymbols.size());
+
+        double[][] covariance = statistics.getCovariance();
+        double[] weights;
+        int iterations = 0;
+        int maxIterations = 0;
+        boolean converged = true;
+        if (method == OptimizationMethod.HRP) {
+            weights = HierarchicalRiskParity.weights(covariance);
+        } else {
+            CoordinateDescentSolver solver = new CoordinateDescentSolver(covariance);
+            weights = method == OptimizationMethod.MIN_VARIANCE ? solver.minimumVariance() : solver.equalRiskContribution();
+            iterations = solver.getSweeps();
+            maxIterations = solver.getMaxSweeps();
+            converged = solver.isConverged();
+        }
+        Map<String, Double> weightsMap = new HashMap<>();
+        for (int i = 0; i < weights.length; i++) {
+            weightsMap.put(stockSymbols.get(i), weights[i]);
+        }
+
+        // Same Sharpe ratio as the search objective, for comparing methods
+        double[] meanReturns = statistics.getMeanReturns();
+        double portfolioReturn = 0.0;
+        double portfolioVariance = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            portfolioReturn += meanReturns[i] * weights[i];
+            double rowSum = 0.0;
+            for (int j = 0; j < weights.length; j++) {
+                rowSum += covariance[i][j] * weights[j];
+            }
+            portfolioVariance += weights[i] * rowSum;
+        }
+        double sharpeRatio = (portfolioReturn - riskFreeRate) / Math.sqrt(portfolioVariance);
+        if (Double.isNaN(sharpeRatio)) {
+            converged = false;
+        }
+        int n = weights.length;
+        return new OptimizationResult(weightsMap, method, iterations, iterations * n, maxIterations * n,
+                System.nanoTime() - start, sharpeRatio, converged, false, null);
+    }
+
+    // Objective wrapper recording the lowest value seen and, optionally, every value in evaluation order
+    private static class ObjectiveTrace implements MultivariateFunction {
+
+        private final MultivariateFunction objective;
+        private double[] trace;
+        private int size;
+        private double bestValue = Double.POSITIVE_INFINITY;
+        private double[] bestPoint;
+
+        ObjectiveTrace(MultivariateFunction objective, boolean recordTrace) {
+            this.objective = objective;
+            this.trace = recordTrace ? new double[64] : null;
+        }
+
+        @Override
+        public double value(double[] point) {
+            double value = objective.value(point);
+            if (value < bestValue || bestPoint == null) {
+                bestValue = value;
+                bestPoint = point.clone();
+            }
+            if (trace != null) {
+                if (size == trace.length) {
+                    trace = Arrays.copyOf(trace, size * 2);
+                }
+                trace[size++] = value;
+            }
+            return value;
+        }
+
+        double[] getBestPoint() {
+            return bestPoint;
         }
 
-        return weightsMap;
+        double[] getTrace() {
+            return trace != null ? Arrays.copyOf(trace, size) : null;
+        }
     }
 
 
@@ -212,63 +398,9 @@ public class PortfolioOptimizer {
 
         PortfolioOptimizer optimizer = new PortfolioOptimizer();
         // Provide stockDataMap based on your data
-        Map<String, Map<Date, Double>> stockDataMap = fetchStockData(portfolio); // Populate this map with real data
+        Map<String, PriceSeries> stockDataMap = new StockDataService().getClosePrices(portfolio.keySet());
         Map<String, Double> optimizedWeights = optimizer.computeEfficientFrontier(stockDataMap, 0.02);
         System.out.println("Optimized Weights: " + optimizedWeights);
     }
 
-    
-    private static Map<String, Map<Date, Double>> fetchStockData(Map<String, Integer> portfolio) {
-        Map<String, Map<Date, Double>> stockDataMap = new HashMap<>();
-        String url = "jdbc:sqlite:stocks.db";
-
-        // Build the SQL query to fetch only the required stock symbols
-        StringBuilder sqlBuilder = new StringBuilder("SELECT stock_symbol, date, close FROM stock_data WHERE stock_symbol IN (");
-        for (String stockSymbol : portfolio.keySet()) {
-            sqlBuilder.append("?,");
-        }
-        // Remove the last comma and close the parentheses
-        sqlBuilder.setLength(sqlBuilder.length() - 1);
-        sqlBuilder.append(")");
-
-        String sql = sqlBuilder.toString();
-
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            // Set parameters for the query
-            int index = 1;
-            for (String stockSymbol : portfolio.keySet()) {
-                pstmt.setString(index++, stockSymbol);
-            }
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    String stockSymbol = rs.getString("stock_symbol");
-                    String dateStr = rs.getString("date");
-                    Date date = DATE_FORMAT.parse(dateStr);
-                    date = removeTimeFromDate(date); // Remove time from date
-                    double close = rs.getDouble("close");
-
-                    stockDataMap
-                            .computeIfAbsent(stockSymbol, k -> new HashMap<>())
-                            .put(date, close);
-                }
-            }
-        } catch (SQLException | ParseException e) {
-            e.printStackTrace();
-        }
-        return stockDataMap;
-    }
-
-    private static Date removeTimeFromDate(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTime();
-    }
-    
 }
\ No newline at end of file
@@ -1,9 +1,5 @@
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.swing.table.AbstractTableModel;
@@ -11,12 +7,14 @@ import javax.swing.table.AbstractTableModel;
 public class PortfolioTableModel extends AbstractTableModel {
         private final String[] columnNames = {"Stock Symbol", "Quantity", "Current Notional", "% of Portfolio"};
         private java.util.List<Map.Entry<String, Integer>> data = new ArrayList<>();
+        private PriceSnapshot snapshot = new PriceSnapshot(new HashMap<>());
         private double totalValue;
 
-        public void setData(Map<String, Integer> portfolio, double totalValue) {
+        public void setData(Map<String, Integer> portfolio, PriceSnapshot snapshot) {
             this.data.clear();
             this.data.addAll(portfolio.entrySet());
-            this.totalValue = totalValue;
+            this.snapshot = snapshot;
+            this.totalValue = snapshot.getNotional(portfolio);
             fireTableDataChanged();
         }
 
@@ -36,12 +34,7 @@ public class PortfolioTableModel extends AbstractTableModel {
             Map.Entry<String, Integer> entry = data.get(rowIndex);
             String stockSymbol = entry.getKey();
             int quantity = entry.getValue();
-            double currentNotional = 0;
-			try {
-				currentNotional = getMostRecentPrice(stockSymbol) * quantity;
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+            double currentNotional = snapshot.getPrice(stockSymbol) * quantity;
             double percentage = totalValue > 0 ? (currentNotional / totalValue) * 100 : 0;
 
             switch (columnIndex) {
@@ -58,24 +51,6 @@ public class PortfolioTableModel extends AbstractTableModel {
             }
         }
 
-        public static double getMostRecentPrice(String stockSymbol) {
-            String url = "jdbc:sqlite:stocks.db";
-            String sql = "SELECT close FROM stock_data WHERE stock_symbol = ? ORDER BY date DESC LIMIT 1";
-            
-            try (Connection conn = DriverManager.getConnection(url);
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setString(1, stockSymbol);
-                ResultSet rs = pstmt.executeQuery();
-                
-                if (rs.next()) {
-                    return rs.getDouble("close");
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-            return 0.0;
-        }
-
 		@Override
         public String getColumnName(int column) {
             return columnNames[column];
@@ -0,0 +1,5 @@
+public interface PriceListener {
+
+    // Called by a PriceSource for every new trade / quote
+    void onPrice(String stockSymbol, double price);
+}
@@ -0,0 +1,78 @@
+import java.util.Arrays;
+
+// Close prices of one symbol in date order: parallel arrays of epoch days and closes
+public class PriceSeries {
+
+    public static final PriceSeries EMPTY = new PriceSeries(new int[0], new double[0]);
+
+    private final int[] days;      // epoch days, strictly ascending
+    private final double[] closes;
+
+    public PriceSeries(int[] days, double[] closes) {
+        this.days = days;
+        this.closes = closes;
+    }
+
+    // Sorts rows that did not arrive in date order (e.g. MM/dd/yyyy text keys); the last close of a day wins
+    public static PriceSeries of(int[] days, double[] closes, int size) {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = days[i] > days[i - 1];
+        }
+        if (sorted) {
+            return new PriceSeries(Arrays.copyOf(days, size), Arrays.copyOf(closes, size));
+        }
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> days[a] != days[b] ? Integer.compare(days[a], days[b]) : Integer.compare(a, b));
+        int[] sortedDays = new int[size];
+        double[] sortedCloses = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            if (n > 0 && sortedDays[n - 1] == days[row]) {
+                sortedCloses[n - 1] = closes[row];
+            } else {
+                sortedDays[n] = days[row];
+                sortedCloses[n] = closes[row];
+                n++;
+            }
+        }
+        return new PriceSeries(Arrays.copyOf(sortedDays, n), Arrays.copyOf(sortedCloses, n));
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    public boolean isEmpty() {
+        return days.length == 0;
+    }
+
+    public int[] getDays() {
+        return days;
+    }
+
+    public double[] getCloses() {
+        return closes;
+    }
+
+    // Position of the given day, or -1 if there is no close that day
+    public int indexOf(int epochDay) {
+        int i = Arrays.binarySearch(days, epochDay);
+        return i >= 0 ? i : -1;
+    }
+
+    public double getLatestClose() {
+        return closes.length == 0 ? 0.0 : closes[closes.length - 1];
+    }
+
+    public int getFirstDay() {
+        return days[0];
+    }
+
+    public int getLastDay() {
+        return days[days.length - 1];
+    }
+}
@@ -0,0 +1,28 @@
+import java.util.Collections;
+import java.util.Map;
+
+// Latest close of every holding, loaded once per user action and shared by all valuations of that action
+public class PriceSnapshot {
+
+    private final Map<String, Double> latestPrices;
+
+    public PriceSnapshot(Map<String, Double> latestPrices) {
+        this.latestPrices = Collections.unmodifiableMap(latestPrices);
+    }
+
+    public double getPrice(String stockSymbol) {
+        return latestPrices.getOrDefault(stockSymbol, 0.0);
+    }
+
+    public double getNotional(Map<String, Integer> portfolio) {
+        double totalNotional = 0.0;
+        for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
+            totalNotional += entry.getValue() * getPrice(entry.getKey());
+        }
+        return totalNotional;
+    }
+
+    public Map<String, Double> getLatestPrices() {
+        return latestPrices;
+    }
+}
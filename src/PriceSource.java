@@ -0,0 +1,15 @@
+public interface PriceSource {
+
+    // Start delivering prices to the listener on the source's own thread
+    default void start(PriceListener listener) {
+        start(listener, null);
+    }
+
+    // Same, running onFinished (if not null) on the source's thread once delivery ends:
+    // end of data, stop() or an error
+    void start(PriceListener listener, Runnable onFinished);
+
+    void stop();
+
+    boolean isRunning();
+}
@@ -0,0 +1,62 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Every symbol's close history, the SPX history and the latest closes, loaded once and never modified.
+// Safe to share between any number of concurrent readers.
+public class PriceStore {
+
+    private final Map<String, PriceSeries> closePrices; // series arrays are shared, callers must not write to them
+    private final PriceSeries spxData;
+    private final PriceSnapshot snapshot;
+    private final long loadedAt;
+
+    public PriceStore(Map<String, PriceSeries> closePrices, PriceSeries spxData, PriceSnapshot snapshot) {
+        this.closePrices = Collections.unmodifiableMap(new HashMap<>(closePrices));
+        this.spxData = spxData;
+        this.snapshot = snapshot;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    public static PriceStore load() {
+        try (Metrics.Stopwatch ignored = Metrics.time("data.priceStore");
+             QueryTracer.Action action = QueryTracer.action("priceStore.load")) {
+            List<String> stockSymbols = SymbolCatalog.loadSymbols();
+            StockDataService stockDataService = new StockDataService();
+            return new PriceStore(stockDataService.getClosePrices(stockSymbols), stockDataService.getSpxData(),
+                    new ValuationService().snapshot(stockSymbols));
+        }
+    }
+
+    // Histories of the given symbols; unknown symbols are rejected
+    public Map<String, PriceSeries> getClosePrices(Collection<String> stockSymbols) {
+        Map<String, PriceSeries> subset = new LinkedHashMap<>();
+        for (String stockSymbol : stockSymbols) {
+            PriceSeries prices = closePrices.get(stockSymbol);
+            if (prices == null || prices.isEmpty()) {
+                throw new IllegalArgumentException("Unknown symbol " + stockSymbol);
+            }
+            subset.put(stockSymbol, prices);
+        }
+        return subset;
+    }
+
+    public PriceSeries getSpxData() {
+        return spxData;
+    }
+
+    public PriceSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int numSymbols() {
+        return closePrices.size();
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
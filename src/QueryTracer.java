@@ -0,0 +1,284 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Instrumented JDBC connections: every statement run through DatabaseUtil.connect() records its SQL,
+// bind count, rows and elapsed time (execute to result set close) in the db.* metrics. Queries slower
+// than -Dstocks.slowQueryMillis (default 200) are logged with their EXPLAIN QUERY PLAN, and queries made
+// on a thread inside action(...) add up to a per-action summary such as "optimize: 312 queries, 1.8 s".
+public final class QueryTracer {
+
+    private static final long SLOW_QUERY_NANOS = Long.getLong("stocks.slowQueryMillis", 200) * 1_000_000;
+
+    private static final ThreadLocal<Action> currentAction = new ThreadLocal<>();
+    private static final Set<String> explainedStatements = ConcurrentHashMap.newKeySet();
+
+    private QueryTracer() {
+    }
+
+    public static Connection wrap(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(QueryTracer.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(conn));
+    }
+
+    // Counts the queries this thread makes until the returned action is closed, then prints the summary
+    public static Action action(String name) {
+        Action action = new Action(name, currentAction.get());
+        currentAction.set(action);
+        return action;
+    }
+
+    public static final class Action implements AutoCloseable {
+
+        private final String name;
+        private final Action enclosing;
+        private final long start = System.nanoTime();
+        private int queries;
+        private long rows;
+        private long queryNanos;
+
+        private Action(String name, Action enclosing) {
+            this.name = name;
+            this.enclosing = enclosing;
+        }
+
+        public int getQueries() {
+            return queries;
+        }
+
+        @Override
+        public void close() {
+            currentAction.set(enclosing);
+            if (enclosing != null) {
+                enclosing.queries += queries;
+                enclosing.rows += rows;
+                enclosing.queryNanos += queryNanos;
+            }
+            Metrics.histogram("action." + name + ".queries").update(queries);
+            if (queries > 0) {
+                System.out.println(String.format("[queries] %s: %d queries, %d rows, %.3f s in the database (%.3f s total)",
+                        name, queries, rows, queryNanos / 1e9, (System.nanoTime() - start) / 1e9));
+            }
+        }
+    }
+
+    private static void record(Connection conn, String sql, Map<Integer, Object> binds, int bindCount, long rows, long elapsedNanos) {
+        Metrics.counter("db.queries").increment();
+        Metrics.timer("db.query").update(elapsedNanos);
+        if (rows >= 0) {
+            Metrics.histogram("db.rows").update(rows);
+        }
+        Action action = currentAction.get();
+        if (action != null) {
+            action.queries++;
+            action.rows += Math.max(0, rows);
+            action.queryNanos += elapsedNanos;
+        }
+        if (elapsedNanos >= SLOW_QUERY_NANOS) {
+            logSlowQuery(conn, sql, binds, bindCount, rows, elapsedNanos);
+        }
+    }
+
+    // The plan is printed once per statement text, not for every slow execution of it
+    private static void logSlowQuery(Connection conn, String sql, Map<Integer, Object> binds, int bindCount, long rows, long elapsedNanos) {
+        Metrics.counter("db.slowQueries").increment();
+        StringBuilder log = new StringBuilder(String.format("[slow query] %.1f ms, %d binds, %d rows: %s",
+                elapsedNanos / 1e6, bindCount, rows, sql.replaceAll("\\s+", " ").trim()));
+        if (explainedStatements.add(sql)) {
+            try (PreparedStatement explain = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                for (Map.Entry<Integer, Object> bind : binds.entrySet()) {
+                    explain.setObject(bind.getKey(), bind.getValue());
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    while (plan.next()) {
+                        log.append("\n    ").append(plan.getString("detail"));
+                    }
+                }
+            } catch (SQLException e) {
+                log.append("\n    (no plan: ").append(e.getMessage()).append(')');
+            }
+        }
+        System.out.println(log);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+
+        private final Connection conn;
+
+        ConnectionHandler(Connection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryTracer.invoke(conn, method, args);
+            if (result instanceof PreparedStatement) {
+                return Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                        new StatementHandler(conn, (Statement) result, (String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[]{Statement.class},
+                        new StatementHandler(conn, (Statement) result, null));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+
+        private final Connection conn;
+        private final Statement statement;
+        private final String preparedSql;
+        private final Map<Integer, Object> binds = new TreeMap<>();
+        private int batchBinds;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Connection conn, Statement statement, String preparedSql) {
+            this.conn = conn;
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer && preparedSql != null) {
+                binds.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                if (args.length == 2 && setDirectly(name, (Integer) args[0], args[1])) {
+                    return null;
+                }
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            } else if (name.equals("addBatch") && preparedSql != null) {
+                batchBinds += binds.size();
+            } else if (name.equals("close")) {
+                finishResultSet();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args, name);
+            }
+            return QueryTracer.invoke(statement, method, args);
+        }
+
+        // Binds of batched inserts run once per value, so the common setters skip reflection
+        private boolean setDirectly(String name, int index, Object value) throws SQLException {
+            PreparedStatement pstmt = (PreparedStatement) statement;
+            switch (name) {
+                case "setString": pstmt.setString(index, (String) value); return true;
+                case "setDouble": pstmt.setDouble(index, (Double) value); return true;
+                case "setInt": pstmt.setInt(index, (Integer) value); return true;
+                case "setLong": pstmt.setLong(index, (Long) value); return true;
+                default: return false;
+            }
+        }
+
+        private Object execute(Method method, Object[] args, String name) throws Throwable {
+            finishResultSet();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+            int bindCount = batch ? batchBinds : binds.size();
+            Map<Integer, Object> bindValues = new TreeMap<>(binds);
+            if (batch) {
+                batchBinds = 0;
+            }
+
+            long start = System.nanoTime();
+            Object result = QueryTracer.invoke(statement, method, args);
+            if (result instanceof ResultSet) {
+                // Rows are fetched as the caller reads them, so the query is recorded when the result set closes
+                openResultSet = new ResultSetHandler((ResultSet) result, sql, bindValues, bindCount, start);
+                return Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[]{ResultSet.class}, openResultSet);
+            }
+            record(conn, sql, bindValues, bindCount, updateCount(result), System.nanoTime() - start);
+            return result;
+        }
+
+        // Result sets left open are closed with their statement
+        private void finishResultSet() {
+            if (openResultSet != null) {
+                openResultSet.finish();
+                openResultSet = null;
+            }
+        }
+
+        private long updateCount(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long rows = 0;
+                for (int count : (int[]) result) rows += Math.max(0, count);
+                return rows;
+            }
+            return -1; // execute(): no count
+        }
+
+        private class ResultSetHandler implements InvocationHandler {
+
+            private final ResultSet resultSet;
+            private final String sql;
+            private final Map<Integer, Object> binds;
+            private final int bindCount;
+            private final long start;
+            private long rows;
+            private boolean finished;
+
+            ResultSetHandler(ResultSet resultSet, String sql, Map<Integer, Object> binds, int bindCount, long start) {
+                this.resultSet = resultSet;
+                this.sql = sql;
+                this.binds = binds;
+                this.bindCount = bindCount;
+                this.start = start;
+            }
+
+            // The per-row methods are called directly rather than reflectively, they run once per row
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "next":
+                        boolean hasRow = resultSet.next();
+                        if (hasRow) rows++;
+                        return hasRow;
+                    case "getString":
+                        return args[0] instanceof Integer ? resultSet.getString((Integer) args[0]) : resultSet.getString((String) args[0]);
+                    case "getDouble":
+                        return args[0] instanceof Integer ? resultSet.getDouble((Integer) args[0]) : resultSet.getDouble((String) args[0]);
+                    case "getInt":
+                        return args[0] instanceof Integer ? resultSet.getInt((Integer) args[0]) : resultSet.getInt((String) args[0]);
+                    case "getLong":
+                        return args[0] instanceof Integer ? resultSet.getLong((Integer) args[0]) : resultSet.getLong((String) args[0]);
+                    case "close":
+                        resultSet.close();
+                        finish();
+                        return null;
+                    default:
+                        return QueryTracer.invoke(resultSet, method, args);
+                }
+            }
+
+            void finish() {
+                if (!finished) {
+                    finished = true;
+                    record(conn, sql, binds, bindCount, rows, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+import java.util.List;
+
+public class ReturnStatistics {
+
+    private final List<String> stockSymbols;
+    private final double[] meanReturns;
+    private final double[][] covariance;
+
+    public ReturnStatistics(List<String> stockSymbols, double[] meanReturns, double[][] covariance) {
+        this.stockSymbols = stockSymbols;
+        this.meanReturns = meanReturns;
+        this.covariance = covariance;
+    }
+
+    public List<String> getStockSymbols() {
+        return stockSymbols;
+    }
+
+    public double[] getMeanReturns() {
+        return meanReturns;
+    }
+
+    public double[][] getCovariance() {
+        return covariance;
+    }
+
+    public int size() {
+        return stockSymbols.size();
+    }
+}
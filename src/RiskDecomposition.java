@@ -0,0 +1,101 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Euler decomposition of annualized portfolio volatility into per-stock contributions
+public class RiskDecomposition {
+
+    private static final int TRADING_DAYS_PER_YEAR = 252;
+
+    private final List<String> stockSymbols;
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private final double volatility;
+    private final double[] marginalRisk;   // d(vol)/d(w_i) = (Sigma w)_i / vol
+    private final double[] componentRisk;  // w_i * marginal risk, sums to vol
+    private final double[] percentContribution; // component risk / vol, sums to 1
+
+    private RiskDecomposition(List<String> stockSymbols, double volatility, double[] marginalRisk, double[] componentRisk, double[] percentContribution) {
+        this.stockSymbols = stockSymbols;
+        this.volatility = volatility;
+        this.marginalRisk = marginalRisk;
+        this.componentRisk = componentRisk;
+        this.percentContribution = percentContribution;
+        for (int i = 0; i < stockSymbols.size(); i++) {
+            symbolIndex.put(stockSymbols.get(i), i);
+        }
+    }
+
+    // From a single Sigma * w product, O(n^2); the statistics hold the covariance of daily returns
+    public static RiskDecomposition compute(ReturnStatistics statistics, Map<String, Double> weights) {
+        List<String> stockSymbols = statistics.getStockSymbols();
+        double[] w = new double[stockSymbols.size()];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = weights.getOrDefault(stockSymbols.get(i), 0.0);
+        }
+        return compute(stockSymbols, statistics.getCovariance(), w);
+    }
+
+    // Covariance of daily returns; volatility, marginal and component risk come out annualized
+    public static RiskDecomposition compute(List<String> stockSymbols, double[][] covariance, double[] weights) {
+        int n = weights.length;
+        double[] sigmaW = new double[n];
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            double[] row = covariance[i];
+            double sum = 0.0;
+            for (int j = 0; j < n; j++) {
+                sum += row[j] * weights[j];
+            }
+            sigmaW[i] = sum * TRADING_DAYS_PER_YEAR;
+            variance += weights[i] * sigmaW[i];
+        }
+        double volatility = Math.sqrt(Math.max(variance, 0.0));
+
+        double[] marginalRisk = new double[n];
+        double[] componentRisk = new double[n];
+        double[] percentContribution = new double[n];
+        if (volatility > 0) {
+            for (int i = 0; i < n; i++) {
+                marginalRisk[i] = sigmaW[i] / volatility;
+                componentRisk[i] = weights[i] * marginalRisk[i];
+                percentContribution[i] = componentRisk[i] / volatility;
+            }
+        }
+        return new RiskDecomposition(stockSymbols, volatility, marginalRisk, componentRisk, percentContribution);
+    }
+
+    public double getVolatility() {
+        return volatility;
+    }
+
+    public double getMarginalRisk(String stockSymbol) {
+        Integer i = symbolIndex.get(stockSymbol);
+        return i != null ? marginalRisk[i] : 0.0;
+    }
+
+    public double getComponentRisk(String stockSymbol) {
+        Integer i = symbolIndex.get(stockSymbol);
+        return i != null ? componentRisk[i] : 0.0;
+    }
+
+    public double getPercentContribution(String stockSymbol) {
+        Integer i = symbolIndex.get(stockSymbol);
+        return i != null ? percentContribution[i] : 0.0;
+    }
+
+    public List<String> getStockSymbols() {
+        return stockSymbols;
+    }
+
+    public double[] getMarginalRisk() {
+        return marginalRisk;
+    }
+
+    public double[] getComponentRisk() {
+        return componentRisk;
+    }
+
+    public double[] getPercentContribution() {
+        return percentContribution;
+    }
+}
@@ -10,8 +10,9 @@ import org.jfree.data.xy.XYSeriesCollection;
 
 import javax.swing.*;
 import java.awt.*;
+import java.nio.DoubleBuffer;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 public class RiskMgmtPanel {
 
@@ -21,78 +22,114 @@ public class RiskMgmtPanel {
         this.stockPortfolioApp = stockPortfolioApp;
     }
 
-    public Map<String, Double> computeBetas(Map<String, Map<Date, Double>> stockDataMap, Map<Date, Double> spxData) {
+    public Map<String, Double> computeBetas(Map<String, PriceSeries> stockDataMap, PriceSeries spxData) {
+        try (Metrics.Stopwatch ignored = Metrics.time("risk.betas");
+             OffHeapArena arena = OffHeapArena.open()) {
+            return computeBetas(stockDataMap, spxData, arena);
+        }
+    }
+
+    private Map<String, Double> computeBetas(Map<String, PriceSeries> stockDataMap, PriceSeries spxData, OffHeapArena arena) {
         Map<String, Double> betas = new HashMap<>();
         
-        // Convert SPX data to a sorted list of dates
-        java.util.List<Date> spxDates = spxData.keySet().stream().sorted().collect(Collectors.toList());
-
         // If there are less than 756 data points, adjust the limit
-        int dataPointsToUse = Math.min(756, spxDates.size());
+        int dataPointsToUse = Math.min(756, spxData.size());
 
-        // Use only the most recent 756 data points
-        java.util.List<Date> recentDates = spxDates.subList(spxDates.size() - dataPointsToUse, spxDates.size());
+        // Use only the most recent 756 SPX trading days
+        int[] recentDays = Arrays.copyOfRange(spxData.getDays(), spxData.size() - dataPointsToUse, spxData.size());
 
         // Calculate SPX returns
-        java.util.List<Double> spxReturns = calculateReturns(spxData, recentDates);
-
-        // Calculate beta for each stock
-        for (Map.Entry<String, Map<Date, Double>> entry : stockDataMap.entrySet()) {
-            String stockSymbol = entry.getKey();
-            Map<Date, Double> stockPrices = entry.getValue();
-
-            // Filter and sort stock prices to match the recentDates
-            java.util.List<Double> stockReturns = calculateReturns(stockPrices, recentDates);
+        double[] spxReturns = calculateReturns(spxData, recentDays);
+
+        // Returns of every stock on the same consecutive SPX days, one off-heap row per stock
+        List<String> stockSymbols = new ArrayList<>(stockDataMap.keySet());
+        OffHeapMatrix stockReturns = arena.allocate(stockSymbols.size(), spxReturns.length);
+        boolean[] complete = new boolean[stockSymbols.size()];
+        for (int i = 0; i < stockSymbols.size(); i++) {
+            int count = calculateReturns(stockDataMap.get(stockSymbols.get(i)), recentDays, stockReturns, i);
+            complete[i] = count == spxReturns.length && count > 0;
+        }
 
-            if (stockReturns.size() == spxReturns.size() && !stockReturns.isEmpty()) {
-                double covariance = calculateCovariance(stockReturns, spxReturns);
-                double spxVariance = calculateVariance(spxReturns);
-                double beta = covariance / spxVariance;
-                System.out.println("beta: " + beta);
-                betas.put(stockSymbol, beta);
+        // Beta of each stock whose returns cover every SPX day
+        double[] stockBetas = betas(stockReturns, spxReturns);
+        for (int i = 0; i < stockSymbols.size(); i++) {
+            if (complete[i]) {
+                betas.put(stockSymbols.get(i), stockBetas[i]);
             }
         }
 
         return betas;
     }
 
-    private java.util.List<Double> calculateReturns(Map<Date, Double> priceData, java.util.List<Date> dates) {
-    	java.util.List<Double> returns = new ArrayList<>();
-        for (int i = 1; i < dates.size(); i++) {
-            Date previousDate = dates.get(i - 1);
-            Date currentDate = dates.get(i);
-
-            if (priceData.containsKey(previousDate) && priceData.containsKey(currentDate)) {
-                double previousPrice = priceData.get(previousDate);
-                double currentPrice = priceData.get(currentDate);
-                if (previousPrice != 0) { // Avoid division by zero
-                    double returnPercent = (currentPrice - previousPrice) / previousPrice;
-                    returns.add(returnPercent);
-                }
+    // Beta kernel: cov(row, market) / var(market) for every row of a returns matrix
+    public static double[] betas(OffHeapMatrix returns, double[] marketReturns) {
+        int n = marketReturns.length;
+        double marketMean = 0.0;
+        for (double r : marketReturns) marketMean += r;
+        marketMean /= n;
+        double marketVariance = 0.0;
+        for (double r : marketReturns) marketVariance += (r - marketMean) * (r - marketMean);
+        marketVariance /= n;
+
+        double[] betas = new double[returns.rows()];
+        for (int i = 0; i < betas.length; i++) {
+            DoubleBuffer row = returns.block(i);
+            int base = returns.offset(i);
+            double mean = 0.0;
+            for (int d = 0; d < n; d++) mean += row.get(base + d);
+            mean /= n;
+            double covariance = 0.0;
+            for (int d = 0; d < n; d++) {
+                covariance += (row.get(base + d) - mean) * (marketReturns[d] - marketMean);
             }
+            betas[i] = covariance / n / marketVariance;
         }
-        return returns;
+        return betas;
     }
 
-    private double calculateCovariance(java.util.List<Double> x, java.util.List<Double> y) {
-        double meanX = x.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double meanY = y.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-
-        double covariance = 0.0;
-        int n = x.size();
-        for (int i = 0; i < n; i++) {
-            covariance += (x.get(i) - meanX) * (y.get(i) - meanY);
+    // Same returns written into a row of the matrix; returns how many there were (only the first
+    // columns() are stored)
+    private int calculateReturns(PriceSeries priceData, int[] days, OffHeapMatrix returns, int row) {
+        double[] closes = priceData.getCloses();
+        DoubleBuffer block = returns.block(row);
+        int base = returns.offset(row);
+        int n = 0;
+        int previous = days.length > 0 ? priceData.indexOf(days[0]) : -1;
+        for (int i = 1; i < days.length; i++) {
+            int current = priceData.indexOf(days[i]);
+            if (previous >= 0 && current >= 0) {
+                double previousPrice = closes[previous];
+                double currentPrice = closes[current];
+                if (previousPrice != 0) { // Avoid division by zero
+                    if (n < returns.columns()) {
+                        block.put(base + n, (currentPrice - previousPrice) / previousPrice);
+                    }
+                    n++;
+                }
+            }
+            previous = current;
         }
-        return covariance / n;
+        return n;
     }
 
-    private double calculateVariance(java.util.List<Double> data) {
-        double mean = data.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-        double variance = 0.0;
-        for (double value : data) {
-            variance += Math.pow(value - mean, 2);
+    // Returns between consecutive days where the series has both prices
+    private double[] calculateReturns(PriceSeries priceData, int[] days) {
+        double[] closes = priceData.getCloses();
+        double[] returns = new double[Math.max(0, days.length - 1)];
+        int n = 0;
+        int previous = days.length > 0 ? priceData.indexOf(days[0]) : -1;
+        for (int i = 1; i < days.length; i++) {
+            int current = priceData.indexOf(days[i]);
+            if (previous >= 0 && current >= 0) {
+                double previousPrice = closes[previous];
+                double currentPrice = closes[current];
+                if (previousPrice != 0) { // Avoid division by zero
+                    returns[n++] = (currentPrice - previousPrice) / previousPrice;
+                }
+            }
+            previous = current;
         }
-        return variance / data.size();
+        return Arrays.copyOf(returns, n);
     }
 
     // Method to compute expected PnL based on % SPX index move
@@ -111,10 +148,32 @@ public class RiskMgmtPanel {
         return series;
     }
 
+    // Same as above, with the PnL of an SPX put hedge (repriced at its horizon, net of premium) added on top
+    public XYSeries computePnLSeries(String seriesName, Map<String, Double> portfolio, Map<String, Double> betas, double minMove, double maxMove, OptionHedge hedge) {
+        XYSeries series = new XYSeries(seriesName);
+        double delta = computeDelta(portfolio, betas);
+        for (double spxMove = minMove; spxMove <= maxMove; spxMove += 0.01) {
+            double pnl = delta * spxMove;
+            if (hedge != null) {
+                pnl += hedge.computePnL(spxMove);
+            }
+            series.add(spxMove * 100, pnl);
+        }
+        return series;
+    }
+
     // Method to create the PnL chart
     public ChartPanel createPnLChart(String title, XYSeries series) {
+        return createPnLChart(title, series, null);
+    }
+
+    // PnL chart with an optional second (hedged) curve
+    public ChartPanel createPnLChart(String title, XYSeries series, XYSeries hedgedSeries) {
         XYSeriesCollection dataset = new XYSeriesCollection();
         dataset.addSeries(series);
+        if (hedgedSeries != null) {
+            dataset.addSeries(hedgedSeries);
+        }
 
         JFreeChart chart = ChartFactory.createXYLineChart(
                 title,
@@ -134,6 +193,7 @@ public class RiskMgmtPanel {
 
         XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
         renderer.setSeriesShapesVisible(0, false); // Hide shapes
+        renderer.setSeriesShapesVisible(1, false);
         plot.setRenderer(renderer);
 
         return new ChartPanel(chart);
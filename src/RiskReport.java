@@ -0,0 +1,75 @@
+import org.jfree.data.xy.XYSeries;
+
+import java.util.Map;
+
+// Everything the Risk Management tab displays, computed in the background
+public class RiskReport {
+
+    private final Map<String, Double> betas;
+    private final Map<String, Double> optimizedWeights;
+    private final XYSeries originalPnLSeries;
+    private final XYSeries optimizedPnLSeries;
+    private final XYSeries originalHedgedSeries;  // null if no hedge needed
+    private final XYSeries optimizedHedgedSeries; // null if no hedge needed
+    private final double originalDelta;
+    private final double optimizedDelta;
+    private final OptionHedge originalHedge;
+    private final OptionHedge optimizedHedge;
+
+    public RiskReport(Map<String, Double> betas, Map<String, Double> optimizedWeights,
+                      XYSeries originalPnLSeries, XYSeries optimizedPnLSeries,
+                      XYSeries originalHedgedSeries, XYSeries optimizedHedgedSeries,
+                      double originalDelta, double optimizedDelta,
+                      OptionHedge originalHedge, OptionHedge optimizedHedge) {
+        this.betas = betas;
+        this.optimizedWeights = optimizedWeights;
+        this.originalPnLSeries = originalPnLSeries;
+        this.optimizedPnLSeries = optimizedPnLSeries;
+        this.originalHedgedSeries = originalHedgedSeries;
+        this.optimizedHedgedSeries = optimizedHedgedSeries;
+        this.originalDelta = originalDelta;
+        this.optimizedDelta = optimizedDelta;
+        this.originalHedge = originalHedge;
+        this.optimizedHedge = optimizedHedge;
+    }
+
+    public Map<String, Double> getBetas() {
+        return betas;
+    }
+
+    public Map<String, Double> getOptimizedWeights() {
+        return optimizedWeights;
+    }
+
+    public XYSeries getOriginalPnLSeries() {
+        return originalPnLSeries;
+    }
+
+    public XYSeries getOptimizedPnLSeries() {
+        return optimizedPnLSeries;
+    }
+
+    public XYSeries getOriginalHedgedSeries() {
+        return originalHedgedSeries;
+    }
+
+    public XYSeries getOptimizedHedgedSeries() {
+        return optimizedHedgedSeries;
+    }
+
+    public double getOriginalDelta() {
+        return originalDelta;
+    }
+
+    public double getOptimizedDelta() {
+        return optimizedDelta;
+    }
+
+    public OptionHedge getOriginalHedge() {
+        return originalHedge;
+    }
+
+    public OptionHedge getOptimizedHedge() {
+        return optimizedHedge;
+    }
+}
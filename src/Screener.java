@@ -0,0 +1,339 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Universe-wide screening statistics (see SymbolStats), stored in the symbol_stats table.
+//
+// A refresh reads stock_data in one sequential scan, grouping rows into per-symbol primitive arrays,
+// then computes every symbol's statistics in parallel on the common pool. Ingesting new stock or index
+// data clears the table, and the next load() recomputes it.
+public class Screener {
+
+    public static final int WINDOW = 756;          // three years of trading days
+    public static final int MOMENTUM_DAYS = 252;   // 12-month momentum...
+    public static final int MOMENTUM_SKIP_DAYS = 21; // ...skipping the most recent month
+    public static final int LIQUIDITY_DAYS = 63;
+    public static final double RISK_FREE_RATE = 0.02;
+    private static final int TRADING_DAYS_PER_YEAR = 252;
+
+    // Stored statistics, computed first if the table is empty
+    public static List<SymbolStats> load() throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            DatabaseUtil.createSymbolStatsTableIfNotExists(conn);
+            List<SymbolStats> stats = read(conn);
+            return stats.isEmpty() ? refresh(conn) : stats;
+        }
+    }
+
+    // Recomputes the whole universe and replaces the stored statistics
+    public static List<SymbolStats> refresh() throws SQLException {
+        try (Connection conn = DatabaseUtil.connect()) {
+            DatabaseUtil.createSymbolStatsTableIfNotExists(conn);
+            return refresh(conn);
+        }
+    }
+
+    private static List<SymbolStats> refresh(Connection conn) throws SQLException {
+        try (Metrics.Stopwatch ignored = Metrics.time("screener.refresh")) {
+            List<SymbolStats> stats = compute(conn, new StockDataService().getSpxData());
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                store(conn, stats);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            return stats;
+        }
+    }
+
+    // Statistics of every symbol in stock_data, in symbol order
+    public static List<SymbolStats> compute(Connection conn, PriceSeries spxData) throws SQLException {
+        Histories histories = scan(conn);
+        SpxIndex spx = new SpxIndex(spxData);
+        return histories.all().parallelStream()
+                .map(history -> computeOne(history, spx))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(SymbolStats::getStockSymbol))
+                .collect(Collectors.toList());
+    }
+
+    // One pass over stock_data; rows are grouped by symbol without asking SQLite to sort them
+    private static Histories scan(Connection conn) throws SQLException {
+        Histories histories = new Histories();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT stock_symbol, date, close, volume FROM stock_data");
+             ResultSet rs = pstmt.executeQuery()) {
+            History history = null;
+            while (rs.next()) {
+                String stockSymbol = rs.getString(1);
+                if (history == null || !history.stockSymbol.equals(stockSymbol)) {
+                    history = histories.get(stockSymbol);
+                }
+                int day;
+                try {
+                    day = EpochDays.parseIso(rs.getString(2));
+                } catch (RuntimeException e) {
+                    Metrics.counter("data.skippedRows").increment();
+                    continue;
+                }
+                history.add(day, rs.getDouble(3), rs.getLong(4));
+            }
+        }
+        return histories;
+    }
+
+    private static SymbolStats computeOne(History history, SpxIndex spx) {
+        history.sortByDay();
+        int size = history.size;
+        int[] days = history.days;
+        double[] closes = history.closes;
+        int start = Math.max(0, size - WINDOW);
+        int n = size - start;
+        if (n < 2 || closes[start] <= 0) {
+            return null;
+        }
+
+        // Daily returns, drawdown and the SPX pairs for beta in one walk over the window
+        double sum = 0.0;
+        double sumOfSquares = 0.0;
+        int returns = 0;
+        double peak = closes[start];
+        double maxDrawdown = 0.0;
+        double[] stockReturns = new double[n - 1];
+        double[] spxReturns = new double[n - 1];
+        int pairs = 0;
+        for (int k = start + 1; k < size; k++) {
+            double previous = closes[k - 1];
+            double current = closes[k];
+            peak = Math.max(peak, current);
+            if (peak > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peak - current) / peak);
+            }
+            if (previous == 0) continue;
+            double r = (current - previous) / previous;
+            sum += r;
+            sumOfSquares += r * r;
+            returns++;
+            // Beta uses the stock's return only when SPX traded on both days and on none in between
+            double spxReturn = spx.returnBetween(days[k - 1], days[k]);
+            if (!Double.isNaN(spxReturn)) {
+                stockReturns[pairs] = r;
+                spxReturns[pairs] = spxReturn;
+                pairs++;
+            }
+        }
+
+        double annualReturn = Math.pow(closes[size - 1] / closes[start], (double) TRADING_DAYS_PER_YEAR / (n - 1)) - 1;
+        double annualVolatility = Double.NaN;
+        if (returns > 1) {
+            double mean = sum / returns;
+            double variance = (sumOfSquares - returns * mean * mean) / (returns - 1);
+            annualVolatility = Math.sqrt(Math.max(0.0, variance) * TRADING_DAYS_PER_YEAR);
+        }
+        double sharpeRatio = annualVolatility > 0 ? (annualReturn - RISK_FREE_RATE) / annualVolatility : Double.NaN;
+        double momentum = size > MOMENTUM_DAYS && closes[size - 1 - MOMENTUM_DAYS] > 0
+                ? closes[size - 1 - MOMENTUM_SKIP_DAYS] / closes[size - 1 - MOMENTUM_DAYS] - 1
+                : Double.NaN;
+
+        double dollarVolume = 0.0;
+        int liquidityStart = Math.max(0, size - LIQUIDITY_DAYS);
+        for (int k = liquidityStart; k < size; k++) {
+            dollarVolume += closes[k] * history.volumes[k];
+        }
+
+        return new SymbolStats(history.stockSymbol, EpochDays.toLocalDate(days[size - 1]).toString(), n,
+                annualReturn, annualVolatility, sharpeRatio, beta(stockReturns, spxReturns, pairs), momentum,
+                maxDrawdown, dollarVolume / (size - liquidityStart));
+    }
+
+    private static double beta(double[] stockReturns, double[] spxReturns, int n) {
+        if (n < 2) return Double.NaN;
+        double meanStock = 0.0;
+        double meanSpx = 0.0;
+        for (int i = 0; i < n; i++) {
+            meanStock += stockReturns[i];
+            meanSpx += spxReturns[i];
+        }
+        meanStock /= n;
+        meanSpx /= n;
+        double covariance = 0.0;
+        double variance = 0.0;
+        for (int i = 0; i < n; i++) {
+            double dx = spxReturns[i] - meanSpx;
+            covariance += (stockReturns[i] - meanStock) * dx;
+            variance += dx * dx;
+        }
+        return variance > 0 ? covariance / variance : Double.NaN;
+    }
+
+    private static void store(Connection conn, List<SymbolStats> stats) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM symbol_stats");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO symbol_stats(stock_symbol, last_date, days, annual_return, annual_volatility, sharpe, beta, "
+                + "momentum, max_drawdown, avg_dollar_volume) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (SymbolStats s : stats) {
+                pstmt.setString(1, s.getStockSymbol());
+                pstmt.setString(2, s.getLastDate());
+                pstmt.setInt(3, s.getDays());
+                setNullable(pstmt, 4, s.getAnnualReturn());
+                setNullable(pstmt, 5, s.getAnnualVolatility());
+                setNullable(pstmt, 6, s.getSharpeRatio());
+                setNullable(pstmt, 7, s.getBeta());
+                setNullable(pstmt, 8, s.getMomentum());
+                setNullable(pstmt, 9, s.getMaxDrawdown());
+                setNullable(pstmt, 10, s.getAvgDollarVolume());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // NaN (not enough history) is stored as NULL
+    private static void setNullable(PreparedStatement pstmt, int index, double value) throws SQLException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            pstmt.setNull(index, java.sql.Types.REAL);
+        } else {
+            pstmt.setDouble(index, value);
+        }
+    }
+
+    private static List<SymbolStats> read(Connection conn) throws SQLException {
+        List<SymbolStats> stats = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT stock_symbol, last_date, days, annual_return, annual_volatility, sharpe, beta, momentum, "
+                + "max_drawdown, avg_dollar_volume FROM symbol_stats ORDER BY stock_symbol");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                stats.add(new SymbolStats(rs.getString(1), rs.getString(2), rs.getInt(3), getNullable(rs, 4),
+                        getNullable(rs, 5), getNullable(rs, 6), getNullable(rs, 7), getNullable(rs, 8),
+                        getNullable(rs, 9), getNullable(rs, 10)));
+            }
+        }
+        return stats;
+    }
+
+    private static double getNullable(ResultSet rs, int index) throws SQLException {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+
+    // Histories by symbol, in first-seen order
+    private static class Histories {
+        private final Map<String, History> bySymbol = new HashMap<>();
+        private final List<History> histories = new ArrayList<>();
+
+        History get(String stockSymbol) {
+            History history = bySymbol.get(stockSymbol);
+            if (history == null) {
+                history = new History(stockSymbol);
+                bySymbol.put(stockSymbol, history);
+                histories.add(history);
+            }
+            return history;
+        }
+
+        List<History> all() {
+            return histories;
+        }
+    }
+
+    // Growable day/close/volume arrays of one symbol
+    private static class History {
+        private final String stockSymbol;
+        private int[] days = new int[256];
+        private double[] closes = new double[256];
+        private long[] volumes = new long[256];
+        private int size;
+
+        History(String stockSymbol) {
+            this.stockSymbol = stockSymbol;
+        }
+
+        void add(int day, double close, long volume) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                closes = Arrays.copyOf(closes, size * 2);
+                volumes = Arrays.copyOf(volumes, size * 2);
+            }
+            days[size] = day;
+            closes[size] = close;
+            volumes[size] = volume;
+            size++;
+        }
+
+        // Rows usually arrive in date order; otherwise sort them, the last row of a day wins
+        void sortByDay() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = days[i] > days[i - 1];
+            }
+            if (sorted) return;
+
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> days[a] != days[b] ? Integer.compare(days[a], days[b]) : Integer.compare(a, b));
+            int[] sortedDays = new int[size];
+            double[] sortedCloses = new double[size];
+            long[] sortedVolumes = new long[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                int row = order[i];
+                if (n == 0 || sortedDays[n - 1] != days[row]) n++;
+                sortedDays[n - 1] = days[row];
+                sortedCloses[n - 1] = closes[row];
+                sortedVolumes[n - 1] = volumes[row];
+            }
+            days = sortedDays;
+            closes = sortedCloses;
+            volumes = sortedVolumes;
+            size = n;
+        }
+    }
+
+    // SPX closes looked up by epoch day
+    private static class SpxIndex {
+        private final int firstDay;
+        private final int[] indexByDay; // -1 where SPX did not trade
+        private final double[] closes;
+
+        SpxIndex(PriceSeries spxData) {
+            int[] days = spxData.getDays();
+            closes = spxData.getCloses();
+            firstDay = days.length > 0 ? days[0] : 0;
+            indexByDay = new int[days.length > 0 ? days[days.length - 1] - firstDay + 1 : 0];
+            Arrays.fill(indexByDay, -1);
+            for (int i = 0; i < days.length; i++) {
+                indexByDay[days[i] - firstDay] = i;
+            }
+        }
+
+        // SPX return from day0 to day1 if they are consecutive SPX days, NaN otherwise
+        double returnBetween(int day0, int day1) {
+            int i0 = indexOf(day0);
+            int i1 = indexOf(day1);
+            if (i0 < 0 || i1 != i0 + 1 || closes[i0] == 0) return Double.NaN;
+            return (closes[i1] - closes[i0]) / closes[i0];
+        }
+
+        private int indexOf(int day) {
+            int offset = day - firstDay;
+            return offset >= 0 && offset < indexByDay.length ? indexByDay[offset] : -1;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Sortable, filterable table of the screener statistics of every symbol (see Screener).
+// Selected symbols can be added to the portfolio.
+public class ScreenerPanel extends JPanel {
+
+    private final BackgroundTaskRunner taskRunner;
+    private final ScreenerTableModel tableModel = new ScreenerTableModel();
+    private final TableRowSorter<ScreenerTableModel> sorter = new TableRowSorter<>(tableModel);
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel countLabel = new JLabel();
+
+    private final JTextField symbolFilterField = new JTextField(6);
+    private final JTextField minSharpeField = new JTextField(4);
+    private final JTextField maxVolatilityField = new JTextField(4);
+    private final JTextField maxDrawdownField = new JTextField(4);
+    private final JTextField minDollarVolumeField = new JTextField(5);
+
+    public ScreenerPanel(BackgroundTaskRunner taskRunner, Consumer<Map<String, Integer>> addToPortfolio) {
+        super(new BorderLayout());
+        this.taskRunner = taskRunner;
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Symbol:"));
+        filterPanel.add(symbolFilterField);
+        filterPanel.add(new JLabel("Min Sharpe:"));
+        filterPanel.add(minSharpeField);
+        filterPanel.add(new JLabel("Max Vol %:"));
+        filterPanel.add(maxVolatilityField);
+        filterPanel.add(new JLabel("Max Drawdown %:"));
+        filterPanel.add(maxDrawdownField);
+        filterPanel.add(new JLabel("Min $ Volume (M):"));
+        filterPanel.add(minDollarVolumeField);
+        JButton refreshButton = new JButton("Recompute");
+        filterPanel.add(refreshButton);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        filterPanel.add(progressBar);
+        filterPanel.add(countLabel);
+        add(filterPanel, BorderLayout.NORTH);
+
+        JTable table = new JTable(tableModel);
+        table.setRowSorter(sorter);
+        table.setDefaultRenderer(Double.class, new StatisticRenderer());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel addPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JTextField quantityField = new JTextField("100", 6);
+        JButton addButton = new JButton("Add Selected to Portfolio");
+        addPanel.add(new JLabel("Quantity:"));
+        addPanel.add(quantityField);
+        addPanel.add(addButton);
+        add(addPanel, BorderLayout.SOUTH);
+
+        for (JTextField field : new JTextField[]{symbolFilterField, minSharpeField, maxVolatilityField, maxDrawdownField, minDollarVolumeField}) {
+            field.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    applyFilter();
+                }
+
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    applyFilter();
+                }
+
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                    applyFilter();
+                }
+            });
+        }
+
+        refreshButton.addActionListener(e -> load(true));
+        addButton.addActionListener(e -> {
+            int quantity;
+            try {
+                quantity = Integer.parseInt(quantityField.getText().trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Please enter a valid quantity.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            // All selected symbols go into the portfolio as one edit
+            Map<String, Integer> quantities = new LinkedHashMap<>();
+            for (int viewRow : table.getSelectedRows()) {
+                quantities.put(tableModel.getStats(table.convertRowIndexToModel(viewRow)).getStockSymbol(), quantity);
+            }
+            addToPortfolio.accept(quantities);
+        });
+
+        load(false);
+    }
+
+    // Stored statistics (computed if missing), or a full recompute
+    private void load(boolean recompute) {
+        taskRunner.submit("screener", recompute, progressBar, this, context -> {
+            context.setProgress(10, recompute ? "Scanning stock data..." : "Loading statistics...");
+            return recompute ? Screener.refresh() : Screener.load();
+        }, stats -> {
+            tableModel.setData(stats);
+            applyFilter();
+        });
+    }
+
+    private void applyFilter() {
+        String symbolText = symbolFilterField.getText().trim().toUpperCase();
+        double minSharpe = parseOr(minSharpeField, Double.NEGATIVE_INFINITY);
+        double maxVolatility = parseOr(maxVolatilityField, Double.POSITIVE_INFINITY) / 100;
+        double maxDrawdown = parseOr(maxDrawdownField, Double.POSITIVE_INFINITY) / 100;
+        double minDollarVolume = parseOr(minDollarVolumeField, Double.NEGATIVE_INFINITY) * 1e6;
+
+        sorter.setRowFilter(new RowFilter<ScreenerTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ScreenerTableModel, ? extends Integer> entry) {
+                SymbolStats s = entry.getModel().getStats(entry.getIdentifier());
+                // A statistic without enough history only passes when it is not filtered on
+                return s.getStockSymbol().contains(symbolText)
+                        && passes(s.getSharpeRatio(), minSharpe, Double.POSITIVE_INFINITY)
+                        && passes(s.getAnnualVolatility(), Double.NEGATIVE_INFINITY, maxVolatility)
+                        && passes(s.getMaxDrawdown(), Double.NEGATIVE_INFINITY, maxDrawdown)
+                        && passes(s.getAvgDollarVolume(), minDollarVolume, Double.POSITIVE_INFINITY);
+            }
+        });
+        countLabel.setText(sorter.getViewRowCount() + " of " + tableModel.getRowCount() + " symbols");
+    }
+
+    private static boolean passes(double value, double min, double max) {
+        if (Double.isNaN(value)) {
+            return min == Double.NEGATIVE_INFINITY && max == Double.POSITIVE_INFINITY;
+        }
+        return value >= min && value <= max;
+    }
+
+    // Empty or unparseable filter fields do not filter
+    private static double parseOr(JTextField field, double defaultValue) {
+        try {
+            return Double.parseDouble(field.getText().trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static class ScreenerTableModel extends AbstractTableModel {
+
+        private final String[] columnNames = {"Stock Symbol", "Last Date", "Days", "Annual Return", "Volatility",
+                "Sharpe", "Beta", "Momentum 12-1", "Max Drawdown", "Avg $ Volume (M)"};
+        private List<SymbolStats> data = new ArrayList<>();
+
+        void setData(List<SymbolStats> stats) {
+            data = new ArrayList<>(stats);
+            fireTableDataChanged();
+        }
+
+        SymbolStats getStats(int row) {
+            return data.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return data.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        // Numeric columns sort as numbers
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 0:
+                case 1:
+                    return String.class;
+                case 2:
+                    return Integer.class;
+                default:
+                    return Double.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            SymbolStats s = data.get(row);
+            switch (column) {
+                case 0: return s.getStockSymbol();
+                case 1: return s.getLastDate();
+                case 2: return s.getDays();
+                case 3: return s.getAnnualReturn();
+                case 4: return s.getAnnualVolatility();
+                case 5: return s.getSharpeRatio();
+                case 6: return s.getBeta();
+                case 7: return s.getMomentum();
+                case 8: return s.getMaxDrawdown();
+                case 9: return s.getAvgDollarVolume() / 1e6;
+                default: return null;
+            }
+        }
+    }
+
+    // Fractions as percentages, the rest to two decimals; missing statistics are blank
+    private static class StatisticRenderer extends DefaultTableCellRenderer {
+
+        StatisticRenderer() {
+            setHorizontalAlignment(SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            if (!(value instanceof Double) || ((Double) value).isNaN()) {
+                setText("");
+                return;
+            }
+            setText(String.format("%.2f", (Double) value));
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            int modelColumn = table.convertColumnIndexToModel(column);
+            boolean percentage = modelColumn == 3 || modelColumn == 4 || modelColumn == 7 || modelColumn == 8;
+            if (percentage && value instanceof Double && !((Double) value).isNaN()) {
+                setText(String.format("%.2f%%", (Double) value * 100));
+            }
+            return this;
+        }
+    }
+}
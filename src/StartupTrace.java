@@ -0,0 +1,14 @@
+import java.lang.management.ManagementFactory;
+
+// Prints how long each startup step took, and the time since JVM start
+public class StartupTrace {
+
+    private static long lastMark = System.nanoTime();
+
+    public static synchronized void mark(String step) {
+        long now = System.nanoTime();
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println(String.format("[startup] %-28s %6.1f ms (%d ms since JVM start)", step, (now - lastMark) / 1e6, sinceJvmStart));
+        lastMark = now;
+    }
+}
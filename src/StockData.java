@@ -1,9 +1,7 @@
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 public class StockData {
-    private Date date;
+    private LocalDate date;
     private String stockSymbol;
     private double adjClose;
     private double close;
@@ -11,10 +9,8 @@ public class StockData {
     private double low;
     private double open;
     private long volume;
-    
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
 
-    public StockData(Date date, String stockSymbol, double adjClose, double close, double high, double low, double open, long volume) {
+    public StockData(LocalDate date, String stockSymbol, double adjClose, double close, double high, double low, double open, long volume) {
     	this.date = date;
         this.stockSymbol = stockSymbol;
         this.adjClose = adjClose;
@@ -26,7 +22,7 @@ public class StockData {
     }
     
 
-    public StockData(Date date, String stockSymbol, double close) {
+    public StockData(LocalDate date, String stockSymbol, double close) {
         this.date = date;
         this.stockSymbol = stockSymbol;
         this.close = close;
@@ -34,11 +30,11 @@ public class StockData {
 
 
 
-    public Date getDate() {
+    public LocalDate getDate() {
         return date;
     }
 
-    public void setDate(Date date) {
+    public void setDate(LocalDate date) {
         this.date = date;
     }
 
@@ -6,7 +6,10 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.function.IntConsumer;
 
 public class StockDataReader extends JFrame {
 
@@ -31,6 +34,7 @@ public class StockDataReader extends JFrame {
     public void readCSVAndStore(String filePath) {
         // Ensure the table exists
         DatabaseUtil.createStockDataTableIfNotExists();
+        DatabaseUtil.createSymbolCatalogTableIfNotExists();
 
         SwingWorker<Void, Integer> worker = new SwingWorker<Void, Integer>() {
             @Override
@@ -42,47 +46,7 @@ public class StockDataReader extends JFrame {
                      Connection conn = DatabaseUtil.connect()) {
 
                     conn.setAutoCommit(false); // Disable auto-commit for better performance
-
-                    // Erase all records in the stock_data table
-                    PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM stock_data");
-                    deleteStmt.executeUpdate();
-                    deleteStmt.close();
-
-                    PreparedStatement pstmt = conn.prepareStatement(
-                            "INSERT INTO stock_data(date, stock_symbol, adj_close, close, high, low, open, volume) " +
-                            "VALUES(?, ?, ?, ?, ?, ?, ?, ?)"
-                    );
-
-                    // Skip the header line
-                    br.readLine();
-
-                    String line;
-                    int count = 0;
-
-                    while ((line = br.readLine()) != null) {
-                        String[] values = line.split(",");
-                        if (values.length < 8) continue; // Skip if the row doesn't have all required columns
-
-                        pstmt.setString(1, values[0]); // Date
-                        pstmt.setString(2, values[1]); // Symbol
-                        pstmt.setDouble(3, Double.parseDouble(values[2])); // Adj Close
-                        pstmt.setDouble(4, Double.parseDouble(values[3])); // Close
-                        pstmt.setDouble(5, Double.parseDouble(values[4])); // High
-                        pstmt.setDouble(6, Double.parseDouble(values[5])); // Low
-                        pstmt.setDouble(7, Double.parseDouble(values[6])); // Open
-                        pstmt.setLong(8, (long) Double.parseDouble(values[7])); // Volume
-
-                        pstmt.addBatch();
-                        count++;
-
-                        if (count % BATCH_SIZE == 0) {
-                            pstmt.executeBatch();
-                            publish(count); // Report progress
-                        }
-                    }
-
-                    // Execute remaining batch
-                    pstmt.executeBatch();
+                    int count = ingest(br, conn, this::publish);
                     conn.commit(); // Commit the transaction
                     publish(count);
                 } catch (IOException | SQLException e) {
@@ -113,6 +77,60 @@ public class StockDataReader extends JFrame {
         worker.execute();
     }
 
+    // Replaces stock_data with the rows of a stock CSV (header line first), rebuilding the symbol catalog
+    // and the history index and clearing the screener statistics. Runs in the caller's transaction; reports the row count every batch.
+    public static int ingest(BufferedReader br, Connection conn, IntConsumer progress) throws IOException, SQLException {
+        // Erase all records in the stock_data table
+        try (PreparedStatement deleteStmt = conn.prepareStatement("DELETE FROM stock_data")) {
+            deleteStmt.executeUpdate();
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO stock_data(date, stock_symbol, adj_close, close, high, low, open, volume) " +
+                "VALUES(?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+            // Skip the header line
+            br.readLine();
+
+            String line;
+            int count = 0;
+            Map<String, SymbolCatalog.Entry> catalog = new HashMap<>();
+
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length < 8) continue; // Skip if the row doesn't have all required columns
+
+                pstmt.setString(1, values[0]); // Date
+                pstmt.setString(2, values[1]); // Symbol
+                pstmt.setDouble(3, Double.parseDouble(values[2])); // Adj Close
+                pstmt.setDouble(4, Double.parseDouble(values[3])); // Close
+                pstmt.setDouble(5, Double.parseDouble(values[4])); // High
+                pstmt.setDouble(6, Double.parseDouble(values[5])); // Low
+                pstmt.setDouble(7, Double.parseDouble(values[6])); // Open
+                pstmt.setLong(8, (long) Double.parseDouble(values[7])); // Volume
+
+                pstmt.addBatch();
+                count++;
+
+                catalog.computeIfAbsent(values[1], SymbolCatalog.Entry::new).add(values[0]);
+
+                if (count % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                    progress.accept(count); // Report progress
+                }
+            }
+
+            // Execute remaining batch
+            pstmt.executeBatch();
+
+            // Replace the symbol catalog and index the new rows in the same transaction
+            SymbolCatalog.replace(conn, catalog.values());
+            DatabaseUtil.createStockDataIndexIfNotExists(conn);
+            DatabaseUtil.invalidateSymbolStats(conn);
+            return count;
+        }
+    }
+
     private int countLines(String filePath) throws IOException {
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
             int lines = 0;
@@ -3,7 +3,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class StockDataService {
@@ -12,7 +16,8 @@ public class StockDataService {
         List<StockData> stockDataList = new ArrayList<>();
         String sql = "SELECT * FROM stock_data WHERE stock_symbol = ?";
 
-        try (Connection conn = DatabaseUtil.connect();
+        try (Metrics.Stopwatch ignored = Metrics.time("query.stockData");
+             Connection conn = DatabaseUtil.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, symbol);
@@ -20,7 +25,7 @@ public class StockDataService {
 
             while (rs.next()) {
                 StockData stockData = new StockData(
-                        rs.getDate("date"),
+                        EpochDays.toLocalDate(EpochDays.parseIso(rs.getString("date"))),
                         rs.getString("stock_symbol"),
                         rs.getDouble("adj_close"),
                         rs.getDouble("close"),
@@ -37,4 +42,79 @@ public class StockDataService {
 
         return stockDataList;
     }
+
+    // Close prices in date order for one symbol
+    public PriceSeries getClosePrices(String stockSymbol) throws SQLException {
+        String query = "SELECT date, close FROM stock_data WHERE stock_symbol = ? ORDER BY date ASC";
+
+        try (Metrics.Stopwatch ignored = Metrics.time("query.closePrices");
+             Connection conn = DatabaseUtil.connect();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setString(1, stockSymbol);
+            return readSeries(stmt.executeQuery(), false);
+        }
+    }
+
+    // Close prices for each symbol; symbols that fail to load map to an empty history
+    public Map<String, PriceSeries> getClosePrices(Collection<String> stockSymbols) {
+        Map<String, PriceSeries> stockDataMap = new HashMap<>();
+        try (Metrics.Stopwatch ignored = Metrics.time("data.closePrices")) {
+            for (String stockSymbol : stockSymbols) {
+                PriceSeries stockPrices = PriceSeries.EMPTY;
+                try {
+                    stockPrices = getClosePrices(stockSymbol);
+                } catch (SQLException e) {
+                    Metrics.counter("data.loadErrors").increment();
+                    e.printStackTrace();
+                }
+                stockDataMap.put(stockSymbol, stockPrices);
+            }
+        }
+        return stockDataMap;
+    }
+
+    // SPX closes; index_data dates are MM/dd/yyyy, so text order is not date order
+    public PriceSeries getSpxData() {
+        String sql = "SELECT date, close FROM index_data";
+
+        try (Metrics.Stopwatch ignored = Metrics.time("query.spx");
+             Connection conn = DatabaseUtil.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            return readSeries(pstmt.executeQuery(), true);
+        } catch (SQLException e) {
+            System.out.println(e.getMessage());
+        }
+
+        return PriceSeries.EMPTY;
+    }
+
+    // Reads (date, close) rows into primitive arrays; rows with unparseable dates are skipped
+    private static PriceSeries readSeries(ResultSet rs, boolean usDates) throws SQLException {
+        int[] days = new int[256];
+        double[] closes = new double[256];
+        int size = 0;
+        try (rs) {
+            while (rs.next()) {
+                String dateStr = rs.getString(1);
+                int day;
+                try {
+                    day = usDates ? EpochDays.parseUs(dateStr) : EpochDays.parseIso(dateStr);
+                } catch (RuntimeException e) {
+                    Metrics.counter("data.skippedRows").increment();
+                    System.out.println("reading data issue: " + e.getMessage());
+                    continue;
+                }
+                if (size == days.length) {
+                    days = Arrays.copyOf(days, size * 2);
+                    closes = Arrays.copyOf(closes, size * 2);
+                }
+                days[size] = day;
+                closes[size] = rs.getDouble(2);
+                size++;
+            }
+        }
+        Metrics.histogram("query.rows").update(size);
+        return PriceSeries.of(days, closes, size);
+    }
 }
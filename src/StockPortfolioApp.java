@@ -1,4 +1,6 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableModel;
 
@@ -16,6 +18,7 @@ import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
+import org.jdatepicker.DateModel;
 import org.jdatepicker.impl.JDatePanelImpl;
 import org.jdatepicker.impl.JDatePickerImpl;
 import org.jdatepicker.impl.UtilDateModel;
@@ -27,11 +30,11 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.*;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReference;
 import java.text.SimpleDateFormat;
-import java.text.ParseException;
 
 public class StockPortfolioApp extends JFrame {
 
@@ -39,6 +42,7 @@ public class StockPortfolioApp extends JFrame {
     private JPanel portfolioPanel;
     private JPanel optimizationPanel;
     private JPanel riskManagementPanel;
+    private JPanel correlationPanel;
 
     private JComboBox<String> stockComboBox;
     private JTextField quantityField;
@@ -48,13 +52,25 @@ public class StockPortfolioApp extends JFrame {
     private JDatePickerImpl fromDatePicker;
     private JDatePickerImpl toDatePicker;
     private XYSeriesCollection dataset;
-    private Map<String, Integer> portfolio = new HashMap<>();
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+    // Current holdings; replaced (never mutated) on every edit, read from any thread
+    private final AtomicReference<Portfolio> portfolio = new AtomicReference<>(Portfolio.EMPTY);
 
     // Shared weights result
     private Map<String, Double> optimizedWeights;
     private Map<String, Double> userInputWeights;
 
+    // Streaming risk from a tick feed
+    private PriceSource priceSource;
+    private StreamingRiskEngine streamingRiskEngine;
+    private Map<String, Double> latestBetas;
+
+    // Prices of the last correlation scope; repeated windows over the same symbols come from its cache
+    private volatile CovarianceCache correlationCache;
+
+    private final ValuationService valuationService = new ValuationService();
+    private final StockDataService stockDataService = new StockDataService();
+    private final BackgroundTaskRunner taskRunner = new BackgroundTaskRunner();
+
     public StockPortfolioApp() {
         setTitle("Stock Portfolio Manager");
         setSize(1200, 800);
@@ -65,16 +81,45 @@ public class StockPortfolioApp extends JFrame {
         tabbedPane = new JTabbedPane();
 
         portfolioPanel = createPortfolioPanel();
-        optimizationPanel = createOptimizationPanel();
-        riskManagementPanel = createRiskManagementPanel();
+        StartupTrace.mark("Portfolio tab built");
 
+        // The other tabs (and their charts) are built the first time they are opened
         tabbedPane.addTab("Portfolio", portfolioPanel);
-        tabbedPane.addTab("Optimization", optimizationPanel);
-        tabbedPane.addTab("Risk Management", riskManagementPanel);
+        tabbedPane.addTab("Screener", new JPanel());
+        tabbedPane.addTab("Optimization", new JPanel());
+        tabbedPane.addTab("Risk Management", new JPanel());
+        tabbedPane.addTab("Correlation", new JPanel());
+        if (DiagnosticsPanel.isEnabledByProperty()) {
+            tabbedPane.addTab("Diagnostics", new JPanel());
+        }
+        tabbedPane.addChangeListener(e -> buildSelectedTab());
 
         add(tabbedPane);
 
         setVisible(true);
+        StartupTrace.mark("Window visible");
+    }
+
+    private void buildSelectedTab() {
+        int index = tabbedPane.getSelectedIndex();
+        if (index < 0) return;
+        String title = tabbedPane.getTitleAt(index);
+        if (title.equals("Optimization") && optimizationPanel == null) {
+            optimizationPanel = createOptimizationPanel();
+            tabbedPane.setComponentAt(index, optimizationPanel);
+            StartupTrace.mark("Optimization tab built");
+        } else if (title.equals("Risk Management") && riskManagementPanel == null) {
+            riskManagementPanel = createRiskManagementPanel();
+            tabbedPane.setComponentAt(index, riskManagementPanel);
+            StartupTrace.mark("Risk Management tab built");
+        } else if (title.equals("Screener") && !(tabbedPane.getComponentAt(index) instanceof ScreenerPanel)) {
+            tabbedPane.setComponentAt(index, new ScreenerPanel(taskRunner, this::addToPortfolio));
+        } else if (title.equals("Correlation") && correlationPanel == null) {
+            correlationPanel = createCorrelationPanel();
+            tabbedPane.setComponentAt(index, correlationPanel);
+        } else if (title.equals("Diagnostics") && !(tabbedPane.getComponentAt(index) instanceof DiagnosticsPanel)) {
+            tabbedPane.setComponentAt(index, new DiagnosticsPanel());
+        }
     }
 
     private JPanel createRiskManagementPanel() {
@@ -87,16 +132,36 @@ public class StockPortfolioApp extends JFrame {
         inputPanel.add(new JLabel("Risk-Free Rate:"));
         inputPanel.add(riskFreeRateField);
 
+        // Loss cap for the SPX put hedge, as a fraction of the portfolio notional
+        JTextField maxLossField = new JTextField("0.10", 6);
+        inputPanel.add(new JLabel("Max Loss:"));
+        inputPanel.add(maxLossField);
+
         // Add the "Compute Risk" button
         JButton computeRiskButton = new JButton("Compute Risk");
         inputPanel.add(computeRiskButton);
 
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        inputPanel.add(progressBar);
+
+        // Streaming mode: replay a tick file and keep delta / PnL live
+        JButton streamButton = new JButton("Stream Ticks...");
+        JLabel streamLabel = new JLabel();
+        inputPanel.add(streamButton);
+        inputPanel.add(streamLabel);
+
         panel.add(inputPanel, BorderLayout.NORTH);
 
         // Create a panel to hold the charts
         JPanel chartPanel = new JPanel(new GridLayout(1, 2));
         panel.add(chartPanel, BorderLayout.CENTER);
 
+        // Editing the inputs cancels a running computation
+        cancelOnEdit(riskFreeRateField, "risk");
+        cancelOnEdit(maxLossField, "risk");
+
         // Add action listener to the "Compute Risk" button
         computeRiskButton.addActionListener(e -> {
             double riskFreeRate;
@@ -106,55 +171,214 @@ public class StockPortfolioApp extends JFrame {
                 JOptionPane.showMessageDialog(panel, "Invalid risk-free rate. Please enter a valid number.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            double maxLossFraction;
+            try {
+                maxLossFraction = Double.parseDouble(maxLossField.getText());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(panel, "Invalid max loss. Please enter a valid number.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            // The computation runs off the EDT on this immutable version of the holdings
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+            Map<String, Double> sharedWeights = optimizedWeights;
+
+            taskRunner.submit("risk", Arrays.asList(current, riskFreeRate, maxLossFraction, sharedWeights), progressBar, panel, context -> {
+                // Fetch stock data and SPX data, and one latest-price snapshot for every valuation below
+                context.setProgress(10, "Loading prices...");
+                Map<String, PriceSeries> stockDataMap = fetchStockData(holdings);
+                PriceSeries spxData = getSpxData();
+                PriceSnapshot snapshot = valuationService.snapshot(holdings.keySet());
+                context.checkCancelled();
+
+                // Compute betas
+                context.setProgress(30, "Computing betas...");
+                Map<String, Double> betas = helper.computeBetas(stockDataMap, spxData);
+
+                // Compute original portfolio's PnL series
+                Map<String, Double> originalPortfolio = getPortfolioNotional(holdings, stockDataMap, snapshot);
+                double totalNotional = snapshot.getNotional(holdings);
+
+                // Use the shared optimization result, or compute it if not already available
+                Map<String, Double> weights = sharedWeights;
+                if (weights == null) {
+                    context.setProgress(50, "Optimizing...");
+                    weights = new OptimizationPanel(this).computeOptimizedPortfolio(current, stockDataMap, riskFreeRate, snapshot);
+                }
+                context.checkCancelled();
+
+                Map<String, Double> optimizedPortfolio = getOptimizedPortfolioNotional(weights, stockDataMap, totalNotional);
+
+                // Compute PnL series for risk slides
+                XYSeries originalPnLSeries = helper.computePnLSeries("Original Portfolio", originalPortfolio, betas, -0.5, 0.5);
+                XYSeries optimizedPnLSeries = helper.computePnLSeries("Optimized Portfolio", optimizedPortfolio, betas, -0.5, 0.5);
+
+                // Compute deltas
+                double originalDelta = helper.computeDelta(originalPortfolio, betas);
+                double optimizedDelta = helper.computeDelta(optimizedPortfolio, betas);
+
+                // Find the cheapest SPX put package capping each portfolio's beta-adjusted loss
+                context.setProgress(80, "Searching hedges...");
+                double spot = HedgeOptimizer.latestLevel(spxData);
+                double volatility = HedgeOptimizer.estimateVolatility(spxData, 252);
+                double[] strikes = OptionPricer.strikeLadder(spot, 0.60, 1.05, 0.005);
+                double[] expiries = OptionPricer.weeklyExpiries(104);
+                HedgeOptimizer hedgeOptimizer = new HedgeOptimizer();
+                OptionHedge originalHedge = hedgeOptimizer.findCheapestPutHedge(originalDelta, maxLossFraction * totalNotional,
+                        spot, riskFreeRate, volatility, strikes, expiries);
+                OptionHedge optimizedHedge = hedgeOptimizer.findCheapestPutHedge(optimizedDelta, maxLossFraction * totalNotional,
+                        spot, riskFreeRate, volatility, strikes, expiries);
+
+                XYSeries originalHedgedSeries = originalHedge == null ? null
+                        : helper.computePnLSeries("Hedged", originalPortfolio, betas, -0.5, 0.5, originalHedge);
+                XYSeries optimizedHedgedSeries = optimizedHedge == null ? null
+                        : helper.computePnLSeries("Hedged", optimizedPortfolio, betas, -0.5, 0.5, optimizedHedge);
+
+                return new RiskReport(betas, weights, originalPnLSeries, optimizedPnLSeries, originalHedgedSeries, optimizedHedgedSeries,
+                        originalDelta, optimizedDelta, originalHedge, optimizedHedge);
+            }, report -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                latestBetas = report.getBetas();
+                if (optimizedWeights == null) {
+                    optimizedWeights = report.getOptimizedWeights();
+                }
+
+                // Clear previous content in chartPanel
+                chartPanel.removeAll();
 
-            // Fetch stock data and SPX data
-            Map<String, Map<Date, Double>> stockDataMap = getStockDataForPortfolio();
-            Map<Date, Double> spxData = getSpxData();
+                // Create charts and add to chart panel
+                ChartPanel originalChartPanel = helper.createPnLChart("Original Portfolio PnL", report.getOriginalPnLSeries(), report.getOriginalHedgedSeries());
+                originalChartPanel.getChart().addSubtitle(new TextTitle("Delta: " + NumberFormatter.formatToInteger(report.getOriginalDelta())));
+                originalChartPanel.getChart().addSubtitle(new TextTitle("Hedge: " + (report.getOriginalHedge() == null ? "none" : report.getOriginalHedge())));
 
-            // Compute betas
-            Map<String, Double> betas = helper.computeBetas(stockDataMap, spxData);
+                ChartPanel optimizedChartPanel = helper.createPnLChart("Optimized Portfolio PnL", report.getOptimizedPnLSeries(), report.getOptimizedHedgedSeries());
+                optimizedChartPanel.getChart().addSubtitle(new TextTitle("Delta: " + NumberFormatter.formatToInteger(report.getOptimizedDelta())));
+                optimizedChartPanel.getChart().addSubtitle(new TextTitle("Hedge: " + (report.getOptimizedHedge() == null ? "none" : report.getOptimizedHedge())));
 
-            // Compute original portfolio's PnL series
-            Map<String, Double> originalPortfolio = getPortfolioNotional(this.portfolio, stockDataMap);
+                chartPanel.add(originalChartPanel);
+                chartPanel.add(optimizedChartPanel);
 
-            // Use the shared optimization result, or compute it if not already available
-            if (optimizedWeights == null) {
-                optimizedWeights = new OptimizationPanel(this).computeOptimizedPortfolio(riskFreeRate);
+                // Refresh the UI
+                panel.revalidate();
+                panel.repaint();
+            });
+        });
+
+        streamButton.addActionListener(e -> {
+            if (priceSource != null && priceSource.isRunning()) {
+                priceSource.stop();
+                streamButton.setText("Stream Ticks...");
+                return;
             }
 
-            Map<String, Double> optimizedPortfolio = getOptimizedPortfolioNotional(optimizedWeights, stockDataMap, getTotalPortfolioNotional());
+            JFileChooser fileChooser = new JFileChooser();
+            if (fileChooser.showOpenDialog(panel) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
 
-            // Compute PnL series for risk slides
-            XYSeries originalPnLSeries = helper.computePnLSeries("Original Portfolio", originalPortfolio, betas, -0.5, 0.5);
-            XYSeries optimizedPnLSeries = helper.computePnLSeries("Optimized Portfolio", optimizedPortfolio, betas, -0.5, 0.5);
+            // Betas from the last Compute Risk (or computed now) and start prices are loaded in the background
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+            Map<String, Double> knownBetas = latestBetas;
+            String tickFile = fileChooser.getSelectedFile().getPath();
+
+            taskRunner.submit("stream", Arrays.asList(current, tickFile), progressBar, panel, context -> {
+                Map<String, Double> betas = knownBetas != null ? knownBetas
+                        : helper.computeBetas(fetchStockData(holdings), getSpxData());
+                Map<String, Double> startPrices = valuationService.snapshot(holdings.keySet()).getLatestPrices();
+                return new StreamingRiskEngine(holdings, betas, startPrices, () -> {
+                    StreamingRiskEngine engine = streamingRiskEngine;
+                    streamLabel.setText("Ticks: " + engine.getTickCount()
+                            + "  Notional: " + NumberFormatter.formatToInteger(engine.getNotional())
+                            + "  Delta: " + NumberFormatter.formatToInteger(engine.getDelta())
+                            + "  PnL: " + NumberFormatter.formatToInteger(engine.getPnL()));
+                });
+            }, engine -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                streamingRiskEngine = engine;
+                PriceSource source = new TickReplaySource(tickFile, 0);
+                priceSource = source;
+                // The replay ends on its own at the end of the file, or is stopped when the holdings change
+                source.start(engine, () -> SwingUtilities.invokeLater(() -> {
+                    if (priceSource == source) {
+                        streamButton.setText("Stream Ticks...");
+                    }
+                }));
+                streamButton.setText("Stop Stream");
+            });
+        });
+
+        return panel;
+    }
 
-            // Compute deltas
-            double originalDelta = helper.computeDelta(originalPortfolio, betas);
-            double optimizedDelta = helper.computeDelta(optimizedPortfolio, betas);
 
-            // Clear previous content in chartPanel
-            chartPanel.removeAll();
 
-            // Create charts and add to chart panel
-            ChartPanel originalChartPanel = helper.createPnLChart("Original Portfolio PnL", originalPnLSeries);
-            originalChartPanel.getChart().addSubtitle(new TextTitle("Delta: " + NumberFormatter.formatToInteger(originalDelta)));
+    private JPanel createCorrelationPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JComboBox<String> scopeComboBox = new JComboBox<>(new String[]{"Portfolio", "Universe"});
+        JTextField lookbackField = new JTextField("756", 6); // three years of trading days
+        JButton computeButton = new JButton("Compute");
+        JCheckBox clusteredCheckBox = new JCheckBox("Clustered", true);
+        JButton resetViewButton = new JButton("Reset View");
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        JLabel statusLabel = new JLabel();
+
+        inputPanel.add(new JLabel("Symbols:"));
+        inputPanel.add(scopeComboBox);
+        inputPanel.add(new JLabel("Lookback (days):"));
+        inputPanel.add(lookbackField);
+        inputPanel.add(computeButton);
+        inputPanel.add(clusteredCheckBox);
+        inputPanel.add(resetViewButton);
+        inputPanel.add(progressBar);
+        inputPanel.add(statusLabel);
+        panel.add(inputPanel, BorderLayout.NORTH);
 
-            ChartPanel optimizedChartPanel = helper.createPnLChart("Optimized Portfolio PnL", optimizedPnLSeries);
-            optimizedChartPanel.getChart().addSubtitle(new TextTitle("Delta: " + NumberFormatter.formatToInteger(optimizedDelta)));
+        CorrelationHeatmapPanel heatmap = new CorrelationHeatmapPanel();
+        panel.add(heatmap, BorderLayout.CENTER);
 
-            chartPanel.add(originalChartPanel);
-            chartPanel.add(optimizedChartPanel);
+        clusteredCheckBox.addActionListener(e -> heatmap.setClustered(clusteredCheckBox.isSelected()));
+        resetViewButton.addActionListener(e -> heatmap.resetView());
 
-            // Refresh the UI
-            panel.revalidate();
-            panel.repaint();
+        computeButton.addActionListener(e -> {
+            int lookback;
+            try {
+                lookback = Integer.parseInt(lookbackField.getText().trim());
+            } catch (NumberFormatException ex) {
+                lookback = 756;
+                JOptionPane.showMessageDialog(panel, "Invalid lookback. Using default value of 756 days.", "Input Error", JOptionPane.WARNING_MESSAGE);
+            }
+            int days = lookback;
+            boolean universe = scopeComboBox.getSelectedIndex() == 1;
+            Portfolio current = portfolio.get();
+
+            taskRunner.submit("correlation", Arrays.asList(current, universe, days), progressBar, panel, context -> {
+                List<String> stockSymbols = universe ? SymbolCatalog.loadSymbols() : new ArrayList<>(current.getStockSymbols());
+                context.setProgress(10, "Loading prices...");
+                CovarianceCache cache = CovarianceCache.forSymbols(correlationCache, stockSymbols, stockDataService);
+                correlationCache = cache;
+                context.checkCancelled();
+                context.setProgress(50, "Computing correlations...");
+                CorrelationMatrix matrix = cache.getCorrelation(cache.getPrices().numDays(), days);
+                context.checkCancelled();
+                context.setProgress(80, "Clustering...");
+                int[] clusteredOrder = HierarchicalClustering.singleLinkage(matrix.toDistances(), matrix.size()).getOrder();
+                return new ClusteredCorrelation(matrix, clusteredOrder);
+            }, result -> {
+                if (!universe && isStale(current)) return; // the holdings changed while this was computing
+                heatmap.setMatrix(result.getMatrix(), result.getClusteredOrder(), clusteredCheckBox.isSelected());
+                statusLabel.setText(result.getMatrix().size() + " symbols");
+            });
         });
 
         return panel;
     }
 
-
-
     private JPanel createOptimizationPanel() {
         JPanel panel = new JPanel(new BorderLayout());
 
@@ -164,19 +388,37 @@ public class StockPortfolioApp extends JFrame {
         JLabel riskFreeRateLabel = new JLabel("Risk-Free Rate:");
         JTextField riskFreeRateField = new JTextField("0.02", 10); // Default to 2%
 
+        JComboBox<OptimizationMethod> methodComboBox = new JComboBox<>(OptimizationMethod.values());
+        methodComboBox.setSelectedItem(OptimizationMethod.MIN_VARIANCE); // converges for any number of holdings
         JButton optimizeButton = new JButton("Optimize Portfolio");
         JButton performanceComparisonButton = new JButton("Performance Comparison");
+        JComboBox<String> rebalanceComboBox = new JComboBox<>(new String[]{"Monthly", "Quarterly", "Semi-Annual", "Annual"});
+        JButton walkForwardButton = new JButton("Walk-Forward Backtest");
+        JButton sweepButton = new JButton("Parameter Sweep");
 
         inputPanel.add(riskFreeRateLabel);
         inputPanel.add(riskFreeRateField);
+        inputPanel.add(new JLabel("Method:"));
+        inputPanel.add(methodComboBox);
         inputPanel.add(optimizeButton);
         inputPanel.add(performanceComparisonButton);
+        inputPanel.add(new JLabel("Rebalance:"));
+        inputPanel.add(rebalanceComboBox);
+        inputPanel.add(walkForwardButton);
+        inputPanel.add(sweepButton);
+
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        inputPanel.add(progressBar);
 
         panel.add(inputPanel, BorderLayout.NORTH);
 
         // Create the portfolio summary table
         String[] columnNames = {"Stock Symbol", "User Input Quantity", "User Input Notional", "User Input Weights",
-                "Optimized Quantity", "Optimized Notional", "Optimized Weights"};
+                "User Marginal Risk", "User Component Risk", "User % of Risk",
+                "Optimized Quantity", "Optimized Notional", "Optimized Weights",
+                "Optimized Marginal Risk", "Optimized Component Risk", "Optimized % of Risk"};
         DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
         JTable summaryTable = new JTable(tableModel);
         JScrollPane tableScrollPane = new JScrollPane(summaryTable);
@@ -199,59 +441,155 @@ public class StockPortfolioApp extends JFrame {
                 riskFreeRate = 0.02; // Default value
                 JOptionPane.showMessageDialog(panel, "Invalid input for risk-free rate. Using default value of 0.02.", "Input Error", JOptionPane.WARNING_MESSAGE);
             }
+            double rate = riskFreeRate;
+            OptimizationMethod method = (OptimizationMethod) methodComboBox.getSelectedItem();
+            // The computation runs off the EDT on this immutable version of the holdings
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+
+            taskRunner.submit("optimize", Arrays.asList(current, rate, method), progressBar, panel, context -> {
+                // Fetch stock data
+                context.setProgress(10, "Loading prices...");
+                Map<String, PriceSeries> stockDataMap = fetchStockData(holdings);
+                if (stockDataMap.isEmpty()) {
+                    throw new IllegalStateException("No stock data available.");
+                }
 
-            // Fetch stock data
-            Map<String, Map<Date, Double>> stockDataMap = fetchStockData(this.portfolio);
-            if (stockDataMap.isEmpty()) {
-                JOptionPane.showMessageDialog(panel, "No stock data available.");
-                return;
-            }
+                // One latest-price snapshot for every valuation of this action
+                PriceSnapshot snapshot = valuationService.snapshot(holdings.keySet());
+
+                // Calculate user input notional and weight
+                Map<String, Double> userInputNotional = new HashMap<>();
+                double totalValue = 0.0;
+
+                for (Map.Entry<String, Integer> entry : holdings.entrySet()) {
+                    String stockSymbol = entry.getKey();
+                    int quantity = entry.getValue();
+                    PriceSeries stockPrices = stockDataMap.get(stockSymbol);
 
-            // Calculate user input notional and weight
-            Map<String, Double> userInputNotional = new HashMap<>();
-            double totalValue = 0.0;
-
-            for (Map.Entry<String, Integer> entry : this.portfolio.entrySet()) {
-                String stockSymbol = entry.getKey();
-                int quantity = entry.getValue();
-                Map<Date, Double> stockPrices = stockDataMap.get(stockSymbol);
-
-                if (stockPrices != null && !stockPrices.isEmpty()) {
-                    // Use the most recent price available
-                    Double price = getCurrentPrice(stockSymbol);
-                    double notional = quantity * price;
-                    userInputNotional.put(stockSymbol, notional);
-                    totalValue += notional;
+                    if (stockPrices != null && !stockPrices.isEmpty()) {
+                        // Use the most recent price available
+                        double price = snapshot.getPrice(stockSymbol);
+                        double notional = quantity * price;
+                        userInputNotional.put(stockSymbol, notional);
+                        totalValue += notional;
+                    }
                 }
-            }
 
-            Map<String, Double> userInputWeights = new HashMap<>();
-            for (Map.Entry<String, Double> entry : userInputNotional.entrySet()) {
-                String stockSymbol = entry.getKey();
-                double notional = entry.getValue();
-                double weight = totalValue > 0 ? notional / totalValue : 0.0;
-                userInputWeights.put(stockSymbol, weight);
-                this.userInputWeights = userInputWeights;
-            }
+                Map<String, Double> userInputWeights = new HashMap<>();
+                for (Map.Entry<String, Double> entry : userInputNotional.entrySet()) {
+                    String stockSymbol = entry.getKey();
+                    double notional = entry.getValue();
+                    double weight = totalValue > 0 ? notional / totalValue : 0.0;
+                    userInputWeights.put(stockSymbol, weight);
+                }
+                context.checkCancelled();
+
+                // Compute the optimized portfolio once
+                context.setProgress(40, "Optimizing...");
+                Map<String, Double> weights = helper.computeOptimizedPortfolio(current, stockDataMap, rate, method, snapshot);
+                return new OptimizationSummary(userInputNotional, userInputWeights, weights, snapshot);
+            }, summary -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                // Store the optimized portfolio for the other tabs
+                this.userInputWeights = summary.getUserInputWeights();
+                optimizedWeights = summary.getOptimizedWeights();
+
+                // Update summary table with user inputs
+                helper.updateSummaryTable(tableModel, summary.getUserInputNotional(), summary.getUserInputWeights(), optimizedWeights, summary.getSnapshot());
+            });
+        });
 
-            // Compute the optimized portfolio once and store it
-            optimizedWeights = helper.computeOptimizedPortfolio(riskFreeRate);
+        performanceComparisonButton.addActionListener(e -> {
+            LocalDate fromDate = getDateFromPicker(fromDatePicker);
+            LocalDate toDate = getDateFromPicker(toDatePicker);
+            // The computation runs off the EDT on this immutable version of the holdings
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+            Map<String, Double> weights = optimizedWeights;
+
+            taskRunner.submit("performance", Arrays.asList(current, weights, fromDate, toDate), progressBar, panel, context -> {
+                context.setProgress(10, "Loading prices...");
+                Map<String, PriceSeries> stockDataMap = fetchStockData(holdings);
+                PriceSnapshot snapshot = valuationService.snapshot(holdings.keySet());
+                context.checkCancelled();
+                context.setProgress(50, "Running backtest...");
+                return helper.computePerformanceComparison(stockDataMap, holdings, weights, fromDate, toDate, snapshot);
+            }, chartData -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                helper.showPerformanceChart(chartPanel, chartData);
+            });
+        });
 
-            // Update summary table with user inputs
-            helper.updateSummaryTable(tableModel, userInputNotional, userInputWeights, optimizedWeights, stockDataMap);
+        walkForwardButton.addActionListener(e -> {
+            double riskFreeRate;
+            try {
+                riskFreeRate = Double.parseDouble(riskFreeRateField.getText());
+            } catch (NumberFormatException ex) {
+                riskFreeRate = 0.02; // Default value
+            }
+            double rate = riskFreeRate;
+            int[] rebalanceMonths = {1, 3, 6, 12};
+            int months = rebalanceMonths[rebalanceComboBox.getSelectedIndex()];
+            OptimizationMethod method = (OptimizationMethod) methodComboBox.getSelectedItem();
+            LocalDate fromDate = getDateFromPicker(fromDatePicker);
+            LocalDate toDate = getDateFromPicker(toDatePicker);
+            // The computation runs off the EDT on this immutable version of the holdings
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+
+            // Shares the chart with Performance Comparison, so only one of them may draw
+            taskRunner.cancel("performance");
+            taskRunner.submit("walkForward", Arrays.asList(current, rate, method, months, fromDate, toDate), progressBar, panel, context -> {
+                context.setProgress(10, "Loading prices...");
+                Map<String, PriceSeries> stockDataMap = fetchStockData(holdings);
+                context.checkCancelled();
+                context.setProgress(30, "Running walk-forward backtest...");
+                return helper.computeWalkForward(stockDataMap, holdings, rate, method, months, fromDate, toDate);
+            }, chartData -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                helper.showPerformanceChart(chartPanel, chartData);
+            });
+        });
 
-            // Update the portfolio performance chart
-            //Date fromDate = getDateFromPicker(fromDatePicker);
-            //Date toDate = getDateFromPicker(toDatePicker);
-            //helper.updatePerformanceChart(chartPanel, stockDataMap, null, optimizedWeights, fromDate, toDate);
+        sweepButton.addActionListener(e -> {
+            LocalDate fromDate = getDateFromPicker(fromDatePicker);
+            LocalDate toDate = getDateFromPicker(toDatePicker);
+            // The computation runs off the EDT on this immutable version of the holdings
+            Portfolio current = portfolio.get();
+            Map<String, Integer> holdings = current.getHoldings();
+
+            ParameterSweep sweep = new ParameterSweep(
+                    new int[]{252, 504, 756},
+                    new double[]{0.0, 0.02, 0.04},
+                    new int[]{1, 3, 12},
+                    OptimizationMethod.values());
+
+            taskRunner.submit("sweep", Arrays.asList(current, fromDate, toDate), progressBar, panel, context -> {
+                context.setProgress(0, "Loading prices...");
+                AlignedPrices prices = AlignedPrices.fromPriceSeries(fetchStockData(holdings));
+                int start = prices.startIndex(EpochDays.of(fromDate));
+                int end = prices.endIndex(EpochDays.of(toDate));
+                if (end <= start) {
+                    throw new IllegalStateException("No data available for the selected date range.");
+                }
+                double totalNotional = valuationService.snapshot(holdings.keySet()).getNotional(holdings);
+                return sweep.run(prices, totalNotional, start, end, context);
+            }, results -> {
+                if (isStale(current)) return; // the holdings changed while this was computing
+                JTable resultsTable = new JTable(ParameterSweep.toTableModel(results));
+                JScrollPane scrollPane = new JScrollPane(resultsTable);
+                scrollPane.setPreferredSize(new Dimension(900, 400));
+                JOptionPane.showMessageDialog(panel, scrollPane, "Parameter Sweep (" + sweep.size() + " runs)", JOptionPane.PLAIN_MESSAGE);
+            });
         });
 
-        performanceComparisonButton.addActionListener(e -> {
-            Date fromDate = getDateFromPicker(fromDatePicker);
-            Date toDate = getDateFromPicker(toDatePicker);
-            Map<String, Map<Date, Double>> stockDataMap = fetchStockData(this.portfolio);
-            helper.updatePerformanceChart(chartPanel, stockDataMap,optimizedWeights, fromDate, toDate);
-            //helper.updatePerformanceChart(chartPanel, stockDataMap, null, optimizedWeights, fromDate, toDate);
+        // Editing the inputs cancels computations that depend on them
+        cancelOnEdit(riskFreeRateField, "optimize", "walkForward");
+        rebalanceComboBox.addActionListener(e -> taskRunner.cancel("walkForward"));
+        methodComboBox.addActionListener(e -> {
+            taskRunner.cancel("optimize");
+            taskRunner.cancel("walkForward");
         });
 
         return panel;
@@ -263,7 +601,8 @@ public class StockPortfolioApp extends JFrame {
         // Input components
         //JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
-        stockComboBox = new JComboBox<>(getAllUniqueStockSymbols().toArray(new String[0]));
+        stockComboBox = new JComboBox<>(SymbolCatalog.loadSymbols().toArray(new String[0]));
+        StartupTrace.mark("Symbols loaded");
         quantityField = new JTextField(10);
         addButton = new JButton("Add to Portfolio");
         plotButton = new JButton("Plot Portfolio Performance");
@@ -311,6 +650,11 @@ public class StockPortfolioApp extends JFrame {
         datePanel.add(toDatePicker);
         datePanel.add(plotButton);
 
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        datePanel.add(progressBar);
+
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.add(inputPanel, BorderLayout.NORTH);
         topPanel.add(datePanel, BorderLayout.SOUTH);
@@ -352,268 +696,195 @@ public class StockPortfolioApp extends JFrame {
 
         // Plot button action listener
         plotButton.addActionListener(e -> {
-            Date fromDate = getDateFromPicker(fromDatePicker);
-            Date toDate = getDateFromPicker(toDatePicker);
-            updatePerformanceChart(chartPanel, fromDate, toDate);
+            LocalDate fromDate = getDateFromPicker(fromDatePicker);
+            LocalDate toDate = getDateFromPicker(toDatePicker);
+            updatePerformanceChart(chartPanel, progressBar, fromDate, toDate);
         });
 
+        // A new date range makes any chart still being computed obsolete
+        fromDatePicker.addActionListener(e -> taskRunner.cancel("portfolioChart"));
+        toDatePicker.addActionListener(e -> taskRunner.cancel("portfolioChart"));
+
         return panel;
     }
 
     
     private void addToPortfolio(String stock, int quantity) {
-        portfolio.put(stock, portfolio.getOrDefault(stock, 0) + quantity);
+        addToPortfolio(Collections.singletonMap(stock, quantity));
+    }
+
+    // One edit, one cancellation and one table refresh however many symbols are added
+    private void addToPortfolio(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+        // Anything computed for the old holdings is obsolete, including results shared between tabs
+        taskRunner.cancelAll();
+        optimizedWeights = null;
+        userInputWeights = null;
+        latestBetas = null;
+        if (priceSource != null) {
+            priceSource.stop(); // the replay values the old holdings
+        }
+        portfolio.updateAndGet(current -> current.withAdded(quantities));
         updatePortfolioTable();
     }
     
     
     private void updatePortfolioTable() {
-        double totalValue = portfolio.entrySet().stream()
-                .mapToDouble(entry -> PortfolioTableModel.getMostRecentPrice(entry.getKey()) * entry.getValue())
-                .sum();
-
-        ((PortfolioTableModel) portfolioTable.getModel()).setData(portfolio, totalValue);
+        Portfolio current = portfolio.get();
+        PriceSnapshot snapshot = valuationService.snapshot(current.getStockSymbols());
+        ((PortfolioTableModel) portfolioTable.getModel()).setData(current.getHoldings(), snapshot);
     }
     
-    private List<String> getAllUniqueStockSymbols() {
-        List<String> stockSymbols = new ArrayList<>();
-        String url = "jdbc:sqlite:stocks.db";
-        String sql = "SELECT DISTINCT stock_symbol FROM stock_data";
-
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                stockSymbols.add(rs.getString("stock_symbol"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+	public void updatePerformanceChart(ChartPanel chartPanel, JProgressBar progressBar, LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            JOptionPane.showMessageDialog(this, "Please select both From and To dates.");
+            return;
         }
-        return stockSymbols;
-    }
-	public void updatePerformanceChart(ChartPanel chartPanel, Date fromDate, Date toDate) {
-        SwingUtilities.invokeLater(() -> {
-            new Thread(() -> {
-                // Fetch stock data for the selected portfolio
-                Map<String, Map<Date, Double>> stockDataMap = fetchStockData(portfolio);
-                if (stockDataMap.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "No stock data available.");
-                    return;
+        // The computation runs off the EDT on this immutable version of the holdings
+        Portfolio current = portfolio.get();
+        Map<String, Integer> holdings = current.getHoldings();
+
+        taskRunner.submit("portfolioChart", Arrays.asList(current, fromDate, toDate), progressBar, this, context -> {
+            // Fetch stock data for the selected portfolio
+            context.setProgress(10, "Loading prices...");
+            Map<String, PriceSeries> stockDataMap = fetchStockData(holdings);
+            if (stockDataMap.isEmpty()) {
+                throw new IllegalStateException("No stock data available.");
+            }
+            context.checkCancelled();
+
+            // Value the portfolio on each trading day in the range
+            context.setProgress(60, "Valuing portfolio...");
+            AlignedPrices prices = AlignedPrices.fromPriceSeries(stockDataMap);
+            BacktestResult result = new BacktestEngine().run(prices, holdings, fromDate, toDate);
+            long[] times = EpochDays.toEpochMillis(result.getDays());
+            double[] values = result.getValues();
+
+            // Only keep data points with non-zero value, and determine the Y-axis range
+            long[] seriesTimes = new long[values.length];
+            double[] seriesValues = new double[values.length];
+            int count = 0;
+            double minValue = Double.MAX_VALUE;
+            double maxValue = Double.MIN_VALUE;
+
+            for (int d = 0; d < values.length; d++) {
+                if (values[d] > 0) {
+                    seriesTimes[count] = times[d];
+                    seriesValues[count] = values[d];
+                    count++;
+
+                    if (values[d] < minValue) minValue = values[d];
+                    if (values[d] > maxValue) maxValue = values[d];
                 }
+            }
 
-                // Prepare the time series
-                XYSeries series = new XYSeries("Portfolio Value");
-
-
-                if (fromDate == null || toDate == null) {
-                    JOptionPane.showMessageDialog(this, "Please select both From and To dates.");
-                    return;
-                }
+            ArrayXYDataset dataset = new ArrayXYDataset();
+            dataset.addSeries("Portfolio Value", Arrays.copyOf(seriesTimes, count), Arrays.copyOf(seriesValues, count));
+            return new PerformanceChartData(dataset, minValue, maxValue, null);
+        }, chartData -> {
+            if (isStale(current)) return; // the holdings changed while this was computing
+            // Create the chart on the Event Dispatch Thread
+            JFreeChart chart = ChartFactory.createXYLineChart(
+                    "Portfolio Performance",
+                    "Date",
+                    "Value",
+                    chartData.getDataset(),
+                    PlotOrientation.VERTICAL,
+                    true,
+                    true,
+                    false
+            );
+
+            XYPlot plot = chart.getXYPlot();
+            DateAxis dateAxis = new DateAxis("Date");
+            dateAxis.setDateFormatOverride(new SimpleDateFormat("yyyy-MM-dd"));
+            plot.setDomainAxis(dateAxis);
+
+            // Configure the Y-axis to fit the data range
+            NumberAxis yAxis = (NumberAxis) plot.getRangeAxis();
+            yAxis.setAutoRangeIncludesZero(false); // Optionally, you can keep zero if you want
+            yAxis.setRange(chartData.getMinY() * 0.95, chartData.getMaxY() * 1.05); // Adjust the range to fit data with some padding
+
+            chartPanel.setChart(chart);
+            chartData.getDataset().attachTo(chartPanel);
+            chartPanel.repaint();
+        });
+    }
 
-                //fromDate = removeTimeFromDate(fromDate);
-                //toDate = removeTimeFromDate(toDate);
-
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(fromDate);
-
-                // Variables to determine the Y-axis range
-                final double[] minValue = {Double.MAX_VALUE};
-                final double[] maxValue = {Double.MIN_VALUE};
-
-                // Iterate through each day in the date range
-                while (!calendar.getTime().after(toDate)) {
-                    Date currentDate = calendar.getTime();
-                    double totalValue = 0.0;
-
-                    // Calculate the total portfolio value on the current date
-                    for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
-                        String stockSymbol = entry.getKey();
-                        int quantity = entry.getValue();
-                        Map<Date, Double> stockPrices = stockDataMap.get(stockSymbol);
-
-                        if (stockPrices != null) {
-                            Double price = stockPrices.get(currentDate);
-                            if (price != null) {
-                                totalValue += price * quantity;
-                            }
-                        }
-                    }
+    // Cancels the given background tasks as soon as the field is edited
+    private void cancelOnEdit(JTextField field, String... taskKeys) {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                cancelTasks();
+            }
 
-                    // Only add data points with non-zero value
-                    if (totalValue > 0) {
-                        series.add(currentDate.getTime(), totalValue);
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                cancelTasks();
+            }
 
-                        // Update min and max values
-                        if (totalValue < minValue[0]) minValue[0] = totalValue;
-                        if (totalValue > maxValue[0]) maxValue[0] = totalValue;
-                    }
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                cancelTasks();
+            }
 
-                    calendar.add(Calendar.DAY_OF_MONTH, 1);
+            private void cancelTasks() {
+                for (String taskKey : taskKeys) {
+                    taskRunner.cancel(taskKey);
                 }
-
-                // Update the chart on the Event Dispatch Thread
-                SwingUtilities.invokeLater(() -> {
-                    // Create dataset and set it to the chart
-                    XYSeriesCollection dataset = new XYSeriesCollection();
-                    dataset.addSeries(series);
-
-                    JFreeChart chart = ChartFactory.createXYLineChart(
-                            "Portfolio Performance",
-                            "Date",
-                            "Value",
-                            dataset,
-                            PlotOrientation.VERTICAL,
-                            true,
-                            true,
-                            false
-                    );
-
-                    XYPlot plot = chart.getXYPlot();
-                    DateAxis dateAxis = new DateAxis("Date");
-                    dateAxis.setDateFormatOverride(new SimpleDateFormat("yyyy-MM-dd"));
-                    plot.setDomainAxis(dateAxis);
-
-                    // Configure the Y-axis to fit the data range
-                    NumberAxis yAxis = (NumberAxis) plot.getRangeAxis();
-                    yAxis.setAutoRangeIncludesZero(false); // Optionally, you can keep zero if you want
-                    yAxis.setRange(minValue[0] * 0.95, maxValue[0] * 1.05); // Adjust the range to fit data with some padding
-
-                    //ChartPanel chartPanel = (ChartPanel) getContentPane().getComponent(0);
-                    chartPanel.setChart(chart);
-                    chartPanel.repaint();
-                });
-            }).start();
+            }
         });
     }
 	
+	// Read-only holdings of the current version
 	public Map<String, Integer> getPortfolioQuantities() {
-		return portfolio;
+		return portfolio.get().getHoldings();
 	}
 
-    private Date getDateFromPicker(JDatePickerImpl datePicker) {
-    	Date picked_date = (Date) datePicker.getModel().getValue();
-        return removeTimeFromDate(picked_date);
+    // True once the holdings have been edited since the given version was taken
+    public boolean isStale(Portfolio computedFor) {
+        return portfolio.get().getVersion() != computedFor.getVersion();
     }
-    
-    private Date removeTimeFromDate(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        return calendar.getTime();
-    }
-
-    private Map<String, Map<Date, Double>> fetchStockData(Map<String, Integer> portfolio) {
-        Map<String, Map<Date, Double>> stockDataMap = new HashMap<>();
 
-        // Simulate fetching stock data from a database or an API
-        for (String stockSymbol : portfolio.keySet()) {
-            Map<Date, Double> stockPrices = new HashMap<>();
-            try {
-                stockPrices = getStockData(stockSymbol);
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-            stockDataMap.put(stockSymbol, stockPrices);
+    // Picked calendar day, or null if none is selected
+    private LocalDate getDateFromPicker(JDatePickerImpl datePicker) {
+        DateModel<?> model = datePicker.getModel();
+        if (model.getValue() == null) {
+            return null;
         }
-
-        return stockDataMap;
+        return LocalDate.of(model.getYear(), model.getMonth() + 1, model.getDay());
     }
-    
-
-
-    private Map<Date, Double> getStockData(String stockSymbol) throws SQLException {
-        Map<Date, Double> stockPrices = new HashMap<>();
-        String url = "jdbc:sqlite:stocks.db";
-        // Assume this method fetches data from a database
-        // Example database query to get stock data
-        String query = "SELECT date, close FROM stock_data WHERE stock_symbol = ? ORDER BY date ASC";
-
-        try (Connection conn = DriverManager.getConnection(url);
-             PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setString(1, stockSymbol);
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                String dateStr = rs.getString("date");
-                Date date = null;
-				try {
-					date = DATE_FORMAT.parse(dateStr);
-					//System.out.println("date in date format: "+ date);
-				} catch (ParseException e) {
-					System.out.println("reading data issue");
-					e.printStackTrace();
-				}
-                double closingPrice = rs.getDouble("close");
-                stockPrices.put(date, closingPrice);
-            }
-        }
 
-        return stockPrices;
+    private Map<String, PriceSeries> fetchStockData(Map<String, Integer> portfolio) {
+        return stockDataService.getClosePrices(portfolio.keySet());
     }
 
-    Map<String, Map<Date, Double>> getStockDataForPortfolio() {
-        Map<String, Map<Date, Double>> stockDataMap = new HashMap<>();
-        for (String stockSymbol : this.portfolio.keySet()) {
-            try {
-                stockDataMap.put(stockSymbol, getStockData(stockSymbol));
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
-        return stockDataMap;
+    Map<String, PriceSeries> getStockDataForPortfolio() {
+        return stockDataService.getClosePrices(portfolio.get().getStockSymbols());
     }
 
-    public static Map<Date, Double> getSpxData() {
-        Map<Date, Double> spxData = new HashMap<>();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-
-        String sql = "SELECT date, close FROM index_data";
-
-        try (Connection conn = DatabaseUtil.connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                String dateString = rs.getString("date");
-                double closePrice = rs.getDouble("close");
-
-                try {
-                    Date date = dateFormat.parse(dateString);
-                    spxData.put(date, closePrice);
-                    //System.out.println("date:"+ date + " and close price: " + closePrice);
-                } catch (ParseException e) {
-                    e.printStackTrace(); // Handle the exception
-                }
-            }
-
-        } catch (SQLException e) {
-            System.out.println(e.getMessage());
-        }
-
-        return spxData;
+    public static PriceSeries getSpxData() {
+        return new StockDataService().getSpxData();
     }
     
-    private Map<String, Double> getPortfolioNotional(Map<String, Integer> portfolio, Map<String, Map<Date, Double>> stockDataMap) {
+    private Map<String, Double> getPortfolioNotional(Map<String, Integer> portfolio, Map<String, PriceSeries> stockDataMap, PriceSnapshot snapshot) {
         Map<String, Double> portfolioNotional = new HashMap<>();
         for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
             String stockSymbol = entry.getKey();
             int quantity = entry.getValue();
-            Map<Date, Double> stockPrices = stockDataMap.get(stockSymbol);
+            PriceSeries stockPrices = stockDataMap.get(stockSymbol);
 
             if (stockPrices != null && !stockPrices.isEmpty()) {
                 // Use the most recent price available
-                double price = getCurrentPrice(stockSymbol);
+                double price = snapshot.getPrice(stockSymbol);
                 portfolioNotional.put(stockSymbol, quantity * price);
             }
         }
         return portfolioNotional;
     }
 
-    private Map<String, Double> getOptimizedPortfolioNotional(Map<String, Double> optimizedWeights, Map<String, Map<Date, Double>> stockDataMap, double totalNotional) {
+    private Map<String, Double> getOptimizedPortfolioNotional(Map<String, Double> optimizedWeights, Map<String, PriceSeries> stockDataMap, double totalNotional) {
         Map<String, Double> optimizedPortfolioNotional = new HashMap<>();
         for (Map.Entry<String, Double> entry : optimizedWeights.entrySet()) {
             String stockSymbol = entry.getKey();
@@ -624,38 +895,16 @@ public class StockPortfolioApp extends JFrame {
         return optimizedPortfolioNotional;
     }
 
-    public double getTotalPortfolioNotional() {
-        double totalNotional = 0.0;
-
-        // Assuming portfolio is a Map<String, Integer> where the key is the stock symbol and the value is the quantity.
-        Map<String, Integer> portfolio = this.portfolio;
-
-        // Fetch the latest stock data
-        Map<String, Map<Date, Double>> stockDataMap = this.getStockDataForPortfolio();
-
-        for (Map.Entry<String, Integer> entry : portfolio.entrySet()) {
-            String stockSymbol = entry.getKey();
-            int quantity = entry.getValue();
-
-            // Get the most recent price for the stock
-            double currentPrice = getCurrentPrice(stockSymbol);
-
-            // Calculate the notional value for this stock and add it to the total
-            totalNotional += quantity * currentPrice;
-        }
-
-        return totalNotional;
+    public double getTotalPortfolioNotional(PriceSnapshot snapshot) {
+        return snapshot.getNotional(portfolio.get().getHoldings());
     }
 
     
-    public Map<String, Integer> getOptimizedPortfolio(Map<String, Double> optimizedWeights) {
+    public Map<String, Integer> getOptimizedPortfolio(Portfolio original, Map<String, Double> optimizedWeights, PriceSnapshot snapshot) {
         Map<String, Integer> optimizedPortfolio = new HashMap<>();
 
-        // Fetch the latest stock data
-        Map<String, Map<Date, Double>> stockDataMap = this.getStockDataForPortfolio();
-
         // Get the total portfolio notional value (sum of all user input notionals)
-        double totalNotional = this.getTotalPortfolioNotional();
+        double totalNotional = snapshot.getNotional(original.getHoldings());
 
         // Calculate optimized quantities for each stock
         for (Map.Entry<String, Double> entry : optimizedWeights.entrySet()) {
@@ -663,7 +912,7 @@ public class StockPortfolioApp extends JFrame {
             double optimizedWeight = entry.getValue();
 
             // Get the most recent price for the stock
-            double currentPrice = getCurrentPrice(stockSymbol);
+            double currentPrice = snapshot.getPrice(stockSymbol);
 
             // Calculate optimized notional and quantity
             double optimizedNotional = totalNotional * optimizedWeight;
@@ -676,34 +925,9 @@ public class StockPortfolioApp extends JFrame {
         return optimizedPortfolio;
     }
     
-
-    private double getCurrentPrice(String stockSymbol) {
-        double currentPrice = 0.0;
-        String url = "jdbc:sqlite:stocks.db";
-        
-        try {
-            // Example query to fetch the most recent stock price
-            String query = "SELECT close FROM stock_data WHERE stock_symbol = ? ORDER BY date DESC LIMIT 1";
-
-            try (Connection conn = DriverManager.getConnection(url);
-                 PreparedStatement stmt = conn.prepareStatement(query)) {
-
-                stmt.setString(1, stockSymbol);
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    currentPrice = rs.getDouble("close");
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return currentPrice;
-    }
-    
-    // Getter for portfolio
-    public Map<String, Integer> getPortfolio() {
-        return portfolio;
+    // Getter for the current portfolio version
+    public Portfolio getPortfolio() {
+        return portfolio.get();
     }
     
     public void initializeDatabase() {
@@ -725,6 +949,8 @@ public class StockPortfolioApp extends JFrame {
 
 
     public static void main(String[] args) {
+        StartupTrace.mark("main");
+        Metrics.registerMBean();
         StockPortfolioApp app = new StockPortfolioApp();
         //app.initializeDatabase();  // Initialize the database
     }
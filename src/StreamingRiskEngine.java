@@ -0,0 +1,91 @@
+import javax.swing.SwingUtilities;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Keeps notional, delta and PnL of a book current from a stream of prices.
+// Each tick only touches the position that moved: O(1) per tick instead of revaluing the whole book.
+public class StreamingRiskEngine implements PriceListener {
+
+    private final LatestPriceTable latestPrices;
+    private final double[] quantities;
+    private final double[] betas;
+
+    private final DoubleAdder notional = new DoubleAdder();
+    private final DoubleAdder delta = new DoubleAdder(); // same definition as RiskMgmtPanel.computeDelta
+    private final DoubleAdder pnl = new DoubleAdder();
+    private final AtomicLong tickCount = new AtomicLong();
+
+    // UI refreshes are coalesced: at most one pending invokeLater however fast ticks arrive
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final Runnable uiRefresh;
+
+    public StreamingRiskEngine(Map<String, Integer> portfolio, Map<String, Double> betas, Map<String, Double> startPrices, Runnable uiRefresh) {
+        this.latestPrices = new LatestPriceTable(portfolio.keySet());
+        this.quantities = new double[latestPrices.size()];
+        this.betas = new double[latestPrices.size()];
+        this.uiRefresh = uiRefresh;
+
+        for (int i = 0; i < latestPrices.size(); i++) {
+            String stockSymbol = latestPrices.getStockSymbol(i);
+            // A holding without a start price stays unpriced (0) until its first tick seeds it
+            Double startPrice = startPrices.get(stockSymbol);
+            double price = startPrice != null && startPrice > 0 ? startPrice : 0.0;
+            quantities[i] = portfolio.get(stockSymbol);
+            this.betas[i] = betas.getOrDefault(stockSymbol, 0.0);
+            latestPrices.set(i, price);
+
+            double positionNotional = quantities[i] * price;
+            notional.add(positionNotional);
+            delta.add(this.betas[i] * positionNotional);
+        }
+    }
+
+    @Override
+    public void onPrice(String stockSymbol, double price) {
+        int index = latestPrices.indexOf(stockSymbol);
+        if (index < 0 || !(price > 0)) return; // Not in the book, or a bad print
+
+        double previousPrice = latestPrices.getAndSet(index, price);
+        double notionalChange = quantities[index] * (price - previousPrice);
+        notional.add(notionalChange);
+        if (previousPrice > 0) {
+            pnl.add(notionalChange); // the seeding tick of an unpriced holding brings it into the book without PnL
+        }
+        delta.add(betas[index] * notionalChange);
+        tickCount.incrementAndGet();
+
+        requestRefresh();
+    }
+
+    private void requestRefresh() {
+        if (uiRefresh != null && refreshPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                refreshPending.set(false);
+                uiRefresh.run();
+            });
+        }
+    }
+
+    public double getNotional() {
+        return notional.sum();
+    }
+
+    public double getDelta() {
+        return delta.sum();
+    }
+
+    public double getPnL() {
+        return pnl.sum();
+    }
+
+    public long getTickCount() {
+        return tickCount.get();
+    }
+
+    public double getLatestPrice(String stockSymbol) {
+        int index = latestPrices.indexOf(stockSymbol);
+        return index >= 0 ? latestPrices.get(index) : Double.NaN;
+    }
+}
@@ -0,0 +1,69 @@
+public class SweepResult {
+
+    private final int lookback;
+    private final double riskFreeRate;
+    private final int rebalanceMonths;
+    private final OptimizationMethod method;
+
+    private final double sharpeRatio;
+    private final double volatility;  // annualized
+    private final double totalReturn;
+    private final double maxDrawdown;
+    private final double turnover;    // average per rebalance
+    private final int fallbacks;      // rebalances held at equal weights because the optimizer failed
+
+    public SweepResult(int lookback, double riskFreeRate, int rebalanceMonths, OptimizationMethod method,
+                       double sharpeRatio, double volatility, double totalReturn, double maxDrawdown, double turnover,
+                       int fallbacks) {
+        this.lookback = lookback;
+        this.riskFreeRate = riskFreeRate;
+        this.rebalanceMonths = rebalanceMonths;
+        this.method = method;
+        this.sharpeRatio = sharpeRatio;
+        this.volatility = volatility;
+        this.totalReturn = totalReturn;
+        this.maxDrawdown = maxDrawdown;
+        this.turnover = turnover;
+        this.fallbacks = fallbacks;
+    }
+
+    public int getLookback() {
+        return lookback;
+    }
+
+    public double getRiskFreeRate() {
+        return riskFreeRate;
+    }
+
+    public int getRebalanceMonths() {
+        return rebalanceMonths;
+    }
+
+    public OptimizationMethod getMethod() {
+        return method;
+    }
+
+    public double getSharpeRatio() {
+        return sharpeRatio;
+    }
+
+    public double getVolatility() {
+        return volatility;
+    }
+
+    public double getTotalReturn() {
+        return totalReturn;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public double getTurnover() {
+        return turnover;
+    }
+
+    public int getFallbacks() {
+        return fallbacks;
+    }
+}
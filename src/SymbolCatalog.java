@@ -0,0 +1,78 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Symbol list from the small symbol_catalog table instead of a DISTINCT scan over stock_data
+public class SymbolCatalog {
+
+    // Per-symbol summary accumulated while ingesting
+    public static class Entry {
+        private final String stockSymbol;
+        private String firstDate;
+        private String lastDate;
+        private int rowCount;
+
+        public Entry(String stockSymbol) {
+            this.stockSymbol = stockSymbol;
+        }
+
+        // Dates are yyyy-MM-dd, so string order is date order
+        public void add(String date) {
+            if (firstDate == null || date.compareTo(firstDate) < 0) firstDate = date;
+            if (lastDate == null || date.compareTo(lastDate) > 0) lastDate = date;
+            rowCount++;
+        }
+    }
+
+    public static void replace(Connection conn, Collection<Entry> entries) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM symbol_catalog");
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO symbol_catalog(stock_symbol, first_date, last_date, row_count) VALUES(?, ?, ?, ?)")) {
+            for (Entry entry : entries) {
+                pstmt.setString(1, entry.stockSymbol);
+                pstmt.setString(2, entry.firstDate);
+                pstmt.setString(3, entry.lastDate);
+                pstmt.setInt(4, entry.rowCount);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public static List<String> loadSymbols() {
+        DatabaseUtil.createSymbolCatalogTableIfNotExists();
+        List<String> stockSymbols = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.connect()) {
+            readSymbols(conn, stockSymbols);
+            if (stockSymbols.isEmpty()) {
+                // Database ingested before the catalog existed: build it (and the index) once
+                System.out.println("Symbol catalog is empty, building it from stock_data...");
+                conn.setAutoCommit(false);
+                DatabaseUtil.rebuildSymbolCatalog(conn);
+                DatabaseUtil.createStockDataIndexIfNotExists(conn);
+                conn.commit();
+                readSymbols(conn, stockSymbols);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return stockSymbols;
+    }
+
+    private static void readSymbols(Connection conn, List<String> stockSymbols) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT stock_symbol FROM symbol_catalog ORDER BY stock_symbol");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                stockSymbols.add(rs.getString("stock_symbol"));
+            }
+        }
+    }
+}
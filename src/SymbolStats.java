@@ -0,0 +1,68 @@
+// Screening statistics of one symbol over its most recent Screener.WINDOW trading days (see Screener)
+public class SymbolStats {
+
+    private final String stockSymbol;
+    private final String lastDate;
+    private final int days;
+    private final double annualReturn;      // compound, annualized
+    private final double annualVolatility;  // of daily returns, annualized
+    private final double sharpeRatio;       // at Screener.RISK_FREE_RATE
+    private final double beta;              // against SPX; NaN without index data
+    private final double momentum;          // 12-month return skipping the last month; NaN with less history
+    private final double maxDrawdown;       // largest peak-to-trough loss, as a positive fraction
+    private final double avgDollarVolume;   // mean close x volume over the last Screener.LIQUIDITY_DAYS
+
+    public SymbolStats(String stockSymbol, String lastDate, int days, double annualReturn, double annualVolatility,
+                       double sharpeRatio, double beta, double momentum, double maxDrawdown, double avgDollarVolume) {
+        this.stockSymbol = stockSymbol;
+        this.lastDate = lastDate;
+        this.days = days;
+        this.annualReturn = annualReturn;
+        this.annualVolatility = annualVolatility;
+        this.sharpeRatio = sharpeRatio;
+        this.beta = beta;
+        this.momentum = momentum;
+        this.maxDrawdown = maxDrawdown;
+        this.avgDollarVolume = avgDollarVolume;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public String getLastDate() {
+        return lastDate;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public double getAnnualReturn() {
+        return annualReturn;
+    }
+
+    public double getAnnualVolatility() {
+        return annualVolatility;
+    }
+
+    public double getSharpeRatio() {
+        return sharpeRatio;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public double getMomentum() {
+        return momentum;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public double getAvgDollarVolume() {
+        return avgDollarVolume;
+    }
+}
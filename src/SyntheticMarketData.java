@@ -0,0 +1,319 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic synthetic market data in the exact stock_data / index_data import formats, for scale and
+// load testing without the real data files. The same options and seed always produce the same files.
+//
+// Daily returns follow a factor model: each stock loads on a market factor and on its sector's factor, so
+// two stocks correlate by marketCorrelation across sectors and by marketCorrelation + sectorCorrelation
+// within one. The SPX index follows the market factor. Optionally, some stocks list late, some days are
+// missing (written as rows with empty prices, which ingest skips) and stocks split, which makes close jump
+// while adj_close stays continuous.
+//
+//   java SyntheticMarketData --out data --symbols 5000 --years 10
+public class SyntheticMarketData {
+
+    // Fixed, so the output never depends on when it is generated
+    private static final LocalDate END_DATE = LocalDate.of(2024, 8, 30);
+    private static final double[] SPLIT_RATIOS = {2.0, 3.0, 1.5};
+
+    private int numSymbols = 500;
+    private int years = 10;
+    private long seed = 42L;
+    private int numSectors = 11;
+    private double marketCorrelation = 0.30;
+    private double sectorCorrelation = 0.20;
+    private double gapRate = 0.0;           // chance that a listed stock has no price on a given day
+    private double lateListingRate = 0.05;  // fraction of stocks listing after the first day
+    private double splitRate = 0.0002;      // chance of a split per stock per day
+
+    public SyntheticMarketData symbols(int numSymbols) {
+        this.numSymbols = numSymbols;
+        return this;
+    }
+
+    public SyntheticMarketData years(int years) {
+        this.years = years;
+        return this;
+    }
+
+    public SyntheticMarketData seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public SyntheticMarketData sectors(int numSectors) {
+        this.numSectors = numSectors;
+        return this;
+    }
+
+    public SyntheticMarketData correlation(double marketCorrelation, double sectorCorrelation) {
+        if (marketCorrelation < 0 || sectorCorrelation < 0 || marketCorrelation + sectorCorrelation > 1) {
+            throw new IllegalArgumentException("Correlations must be non-negative and add up to at most 1");
+        }
+        this.marketCorrelation = marketCorrelation;
+        this.sectorCorrelation = sectorCorrelation;
+        return this;
+    }
+
+    public SyntheticMarketData gaps(double gapRate) {
+        this.gapRate = gapRate;
+        return this;
+    }
+
+    public SyntheticMarketData lateListings(double lateListingRate) {
+        this.lateListingRate = lateListingRate;
+        return this;
+    }
+
+    public SyntheticMarketData splits(double splitRate) {
+        this.splitRate = splitRate;
+        return this;
+    }
+
+    public static String symbol(int index) {
+        return String.format("S%05d", index);
+    }
+
+    public List<String> getSymbols() {
+        List<String> symbols = new ArrayList<>(numSymbols);
+        for (int s = 0; s < numSymbols; s++) {
+            symbols.add(symbol(s));
+        }
+        return symbols;
+    }
+
+    // Weekdays over the last `years` years up to END_DATE
+    public List<LocalDate> getTradingDays() {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = END_DATE.minusYears(years); !day.isAfter(END_DATE); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(day);
+            }
+        }
+        return Collections.unmodifiableList(days);
+    }
+
+    // Writes stocks.csv, index.csv and (unless withDatabase is false) stocks.db into the directory
+    public void generate(Path directory, boolean withDatabase) throws IOException, SQLException {
+        Files.createDirectories(directory);
+        Path stockCsv = directory.resolve("stocks.csv");
+        Path indexCsv = directory.resolve("index.csv");
+        writeStockCsv(stockCsv);
+        writeIndexCsv(indexCsv);
+        if (withDatabase) {
+            writeDatabase(directory.resolve("stocks.db"), stockCsv, indexCsv);
+        }
+    }
+
+    // stock_data import format: Date,Symbol,Adj Close,Close,High,Low,Open,Volume with yyyy-MM-dd dates.
+    // Returns the number of priced rows.
+    public long writeStockCsv(Path file) throws IOException {
+        List<LocalDate> days = getTradingDays();
+        String[] dates = new String[days.size()];
+        for (int d = 0; d < dates.length; d++) {
+            dates[d] = days.get(d).toString();
+        }
+        double[][] factors = factorShocks(days.size());
+
+        long rows = 0;
+        double[] prices = new double[days.size()];
+        double[] splitFactors = new double[days.size()];
+        StringBuilder line = new StringBuilder(96);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("Date,Symbol,Adj Close,Close,High,Low,Open,Volume\n");
+            for (int s = 0; s < numSymbols; s++) {
+                String stockSymbol = symbol(s);
+                // Each stock has its own generator, so its path does not depend on the other stocks
+                Random random = new Random(seed * 1_000_003L + s);
+                int firstDay = random.nextDouble() < lateListingRate ? random.nextInt(Math.max(1, days.size() * 3 / 4)) : 0;
+                double[] sectorShocks = factors[1 + s % numSectors];
+                simulatePrices(random, factors[0], sectorShocks, firstDay, prices, splitFactors);
+                double finalSplitFactor = splitFactors[days.size() - 1];
+                double volumeScale = 500_000 + 4_500_000 * random.nextDouble();
+
+                for (int d = firstDay; d < days.size(); d++) {
+                    line.setLength(0);
+                    line.append(dates[d]).append(',').append(stockSymbol);
+                    if (d > firstDay && random.nextDouble() < gapRate) {
+                        out.append(line).append(",,,,,,\n"); // missing day, as in the real export
+                        continue;
+                    }
+                    double close = prices[d] / splitFactors[d];
+                    double open = (d > firstDay ? prices[d - 1] / splitFactors[d] : close) * Math.exp(0.002 * random.nextGaussian());
+                    double high = Math.max(open, close) * (1 + 0.006 * Math.abs(random.nextGaussian()));
+                    double low = Math.min(open, close) * (1 - 0.006 * Math.abs(random.nextGaussian()));
+                    long volume = Math.round(volumeScale * splitFactors[d] * Math.exp(0.4 * random.nextGaussian()));
+                    appendPrice(line.append(','), prices[d] / finalSplitFactor);
+                    appendPrice(line.append(','), close);
+                    appendPrice(line.append(','), high);
+                    appendPrice(line.append(','), low);
+                    appendPrice(line.append(','), open);
+                    line.append(',').append(volume).append(".0\n");
+                    out.append(line);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    // Split-free price path from the factor model, plus the cumulative split factor on each day
+    private void simulatePrices(Random random, double[] marketShocks, double[] sectorShocks, int firstDay,
+                                double[] prices, double[] splitFactors) {
+        double volatility = 0.01 + 0.02 * random.nextDouble();   // daily, 16% to 48% annualized
+        double drift = 0.0002 + 0.0004 * random.nextDouble();
+        double marketLoading = Math.sqrt(marketCorrelation);
+        double sectorLoading = Math.sqrt(sectorCorrelation);
+        double idiosyncraticLoading = Math.sqrt(1 - marketCorrelation - sectorCorrelation);
+
+        double price = 10 + 190 * random.nextDouble();
+        double splitFactor = 1.0;
+        for (int d = 0; d < prices.length; d++) {
+            if (d > firstDay) {
+                double shock = marketLoading * marketShocks[d] + sectorLoading * sectorShocks[d]
+                        + idiosyncraticLoading * random.nextGaussian();
+                price *= Math.exp(drift - 0.5 * volatility * volatility + volatility * shock);
+                if (random.nextDouble() < splitRate) {
+                    splitFactor *= SPLIT_RATIOS[random.nextInt(SPLIT_RATIOS.length)];
+                }
+            }
+            prices[d] = price;
+            splitFactors[d] = splitFactor;
+        }
+    }
+
+    // index_data import format: Date,S&P500 with MM/dd/yyyy dates
+    public void writeIndexCsv(Path file) throws IOException {
+        List<LocalDate> days = getTradingDays();
+        double[] marketShocks = factorShocks(days.size())[0];
+        double level = 1800;
+        StringBuilder line = new StringBuilder(32);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("Date,S&P500\n");
+            for (int d = 0; d < days.size(); d++) {
+                if (d > 0) {
+                    level *= Math.exp(0.0003 + 0.011 * marketShocks[d]);
+                }
+                LocalDate day = days.get(d);
+                line.setLength(0);
+                appendTwoDigits(line, day.getMonthValue()).append('/');
+                appendTwoDigits(line, day.getDayOfMonth()).append('/').append(day.getYear()).append(',');
+                appendPrice(line, level);
+                out.append(line).append('\n');
+            }
+        }
+    }
+
+    // Builds a database through the same ingest code as a production import
+    public void writeDatabase(Path db, Path stockCsv, Path indexCsv) throws IOException, SQLException {
+        Files.deleteIfExists(db);
+        try (Connection conn = DatabaseUtil.connect(db.toString())) {
+            DatabaseUtil.createStockDataTableIfNotExists(conn);
+            DatabaseUtil.createIndexDataTableIfNotExists(conn);
+            DatabaseUtil.createSymbolCatalogTableIfNotExists(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA synchronous = OFF"); // a throwaway file, rebuilt on failure
+            }
+
+            conn.setAutoCommit(false);
+            try (BufferedReader stockReader = Files.newBufferedReader(stockCsv);
+                 BufferedReader indexReader = Files.newBufferedReader(indexCsv)) {
+                StockDataReader.ingest(stockReader, conn, count -> { });
+                IndexDataReader.ingest(indexReader, conn, count -> { });
+            }
+            conn.commit();
+        }
+    }
+
+    // Row 0: market factor, rows 1..numSectors: sector factors; standard normal shocks per day
+    private double[][] factorShocks(int numDays) {
+        Random random = new Random(seed);
+        double[][] shocks = new double[1 + numSectors][numDays];
+        for (int d = 0; d < numDays; d++) {
+            for (int f = 0; f < shocks.length; f++) {
+                shocks[f][d] = random.nextGaussian();
+            }
+        }
+        return shocks;
+    }
+
+    // Four decimals, without String.format (millions of values)
+    private static void appendPrice(StringBuilder line, double value) {
+        long scaled = Math.round(value * 10_000);
+        line.append(scaled / 10_000).append('.');
+        long fraction = scaled % 10_000;
+        if (fraction < 1000) line.append('0');
+        if (fraction < 100) line.append('0');
+        if (fraction < 10) line.append('0');
+        line.append(fraction);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder line, int value) {
+        if (value < 10) line.append('0');
+        return line.append(value);
+    }
+
+    public static void main(String[] args) {
+        SyntheticMarketData generator = new SyntheticMarketData();
+        Path directory = Paths.get("synthetic");
+        boolean withDatabase = true;
+        double marketCorrelation = generator.marketCorrelation;
+        double sectorCorrelation = generator.sectorCorrelation;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--no-db")) {
+                    withDatabase = false;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--out": directory = Paths.get(value); break;
+                    case "--symbols": generator.symbols(Integer.parseInt(value)); break;
+                    case "--years": generator.years(Integer.parseInt(value)); break;
+                    case "--seed": generator.seed(Long.parseLong(value)); break;
+                    case "--sectors": generator.sectors(Integer.parseInt(value)); break;
+                    case "--market-corr": marketCorrelation = Double.parseDouble(value); break;
+                    case "--sector-corr": sectorCorrelation = Double.parseDouble(value); break;
+                    case "--gaps": generator.gaps(Double.parseDouble(value)); break;
+                    case "--late-listings": generator.lateListings(Double.parseDouble(value)); break;
+                    case "--splits": generator.splits(Double.parseDouble(value)); break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            generator.correlation(marketCorrelation, sectorCorrelation);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java SyntheticMarketData [--out dir] [--symbols 500] [--years 10] [--seed 42] [--sectors 11]");
+            System.err.println("         [--market-corr 0.3] [--sector-corr 0.2] [--gaps 0] [--late-listings 0.05] [--splits 0.0002] [--no-db]");
+            System.exit(2);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            generator.generate(directory, withDatabase);
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.out.println("Generated " + generator.numSymbols + " symbols over " + generator.getTradingDays().size()
+                + " trading days into " + directory.toAbsolutePath() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,15 @@
+import java.util.concurrent.CancellationException;
+
+public interface TaskContext {
+
+    // Report progress (0-100) to the UI; safe to call from the background thread
+    void setProgress(int percent, String message);
+
+    boolean isCancelled();
+
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// Allocation-budget check for the analytic hot paths: bytes allocated per call, measured with the
+// thread allocation counters on fixed synthetic data, against the budgets recorded in a properties file.
+// Exits with 1 if any path is over budget, so it can gate a release build.
+//
+//   java TestAllocationBudgets [budgets file] [--record]
+// --record rewrites the file with the current measurements plus RECORD_HEADROOM.
+public class TestAllocationBudgets {
+
+    private static final int SYMBOLS = 50;
+    private static final int YEARS = 4;
+    private static final int WARMUP_CALLS = 30;     // let the JIT settle (escape analysis removes some allocations)
+    private static final int MEASURED_CALLS = 20;
+    private static final double RECORD_HEADROOM = 1.25;
+
+    private static final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException, SQLException {
+        Path budgetsFile = Paths.get("allocation-budgets.properties");
+        boolean record = false;
+        for (String arg : args) {
+            if (arg.equals("--record")) {
+                record = true;
+            } else if (arg.startsWith("--")) {
+                System.err.println("Usage: java TestAllocationBudgets [budgets file] [--record]");
+                System.exit(2);
+            } else {
+                budgetsFile = Paths.get(arg);
+            }
+        }
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM does not report per-thread allocations");
+            System.exit(2);
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        Map<String, Long> measured = measureAll();
+
+        if (record) {
+            writeBudgets(budgetsFile, measured);
+            System.out.println("Recorded budgets in " + budgetsFile);
+            return;
+        }
+
+        Properties budgets = new Properties();
+        try (Reader reader = Files.newBufferedReader(budgetsFile)) {
+            budgets.load(reader);
+        }
+        boolean failed = false;
+        System.out.println(String.format("%-28s %14s %14s", "Path", "Bytes/call", "Budget"));
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            String budgetValue = budgets.getProperty(entry.getKey());
+            long budget = budgetValue != null ? Long.parseLong(budgetValue.trim()) : -1;
+            boolean over = budget < 0 || entry.getValue() > budget;
+            failed |= over;
+            System.out.println(String.format("%-28s %14d %14s %s", entry.getKey(), entry.getValue(),
+                    budget < 0 ? "none" : Long.toString(budget), over ? "FAIL" : "ok"));
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    // Bytes per call of every covered path, in report order
+    private static Map<String, Long> measureAll() throws IOException, SQLException {
+        Path directory = Files.createTempDirectory("allocation-budgets");
+        new SyntheticMarketData().symbols(SYMBOLS).years(YEARS).lateListings(0).gaps(0).splits(0)
+                .generate(directory, true);
+        System.setProperty("stocks.db", directory.resolve("stocks.db").toString());
+
+        List<String> stockSymbols = new SyntheticMarketData().symbols(SYMBOLS).getSymbols();
+        List<String> optimizerSymbols = stockSymbols.subList(0, 5); // converges within the evaluation budget
+        StockDataService stockDataService = new StockDataService();
+        Map<String, PriceSeries> stockDataMap = stockDataService.getClosePrices(stockSymbols);
+        Map<String, PriceSeries> optimizerData = stockDataService.getClosePrices(optimizerSymbols);
+        PriceSeries spxData = stockDataService.getSpxData();
+
+        RiskMgmtPanel riskAnalytics = new RiskMgmtPanel(null);
+        Map<String, Double> betas = riskAnalytics.computeBetas(stockDataMap, spxData);
+        Map<String, Double> notionals = new HashMap<>();
+        Map<String, Integer> quantities = new HashMap<>();
+        for (String stockSymbol : stockSymbols) {
+            notionals.put(stockSymbol, 10_000.0);
+            quantities.put(stockSymbol, 100);
+        }
+        List<LocalDate> days = new SyntheticMarketData().years(YEARS).getTradingDays();
+        LocalDate fromDate = days.get(days.size() / 2);
+        LocalDate toDate = days.get(days.size() - 1);
+
+        Map<String, Long> measured = new LinkedHashMap<>();
+        measured.put("computeEfficientFrontier", bytesPerCall(() -> new PortfolioOptimizer().computeEfficientFrontier(optimizerData, 0.02)));
+        measured.put("computeBetas", bytesPerCall(() -> riskAnalytics.computeBetas(stockDataMap, spxData)));
+        measured.put("computePnLSeries", bytesPerCall(() -> riskAnalytics.computePnLSeries("PnL", notionals, betas, -0.5, 0.5)));
+        measured.put("backtest", bytesPerCall(() -> new BacktestEngine().run(AlignedPrices.fromPriceSeries(stockDataMap), quantities, fromDate, toDate)));
+        measured.put("loadHistory", bytesPerCall(() -> stockDataService.getClosePrices(stockSymbols)));
+
+        for (String name : new String[]{"stocks.csv", "index.csv", "stocks.db"}) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+        Files.deleteIfExists(directory);
+        return measured;
+    }
+
+    // Average over MEASURED_CALLS after warming up; results are kept so the calls cannot be optimized away.
+    // Counts every thread, since parallel streams allocate on the common pool's workers, not the caller.
+    private static long bytesPerCall(Call call) {
+        List<Object> results = new ArrayList<>(WARMUP_CALLS + MEASURED_CALLS);
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            results.add(call.run());
+        }
+        results.clear();
+        Map<Long, Long> before = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            results.add(call.run());
+        }
+        Map<Long, Long> after = allocatedBytes();
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : after.entrySet()) {
+            allocated += entry.getValue() - before.getOrDefault(entry.getKey(), 0L); // threads started since count from 0
+        }
+        return allocated / MEASURED_CALLS;
+    }
+
+    // Bytes allocated so far by each live thread, by thread id
+    private static Map<Long, Long> allocatedBytes() {
+        long[] threadIds = threadBean.getAllThreadIds();
+        long[] bytes = threadBean.getThreadAllocatedBytes(threadIds);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < threadIds.length; i++) {
+            if (bytes[i] >= 0) { // -1 for a thread that ended in between
+                allocated.put(threadIds[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static void writeBudgets(Path budgetsFile, Map<String, Long> measured) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(budgetsFile)) {
+            writer.write("# Bytes allocated per call (TestAllocationBudgets); regenerate with --record after an intended change\n");
+            for (Map.Entry<String, Long> entry : measured.entrySet()) {
+                long budget = (long) Math.ceil(entry.getValue() * RECORD_HEADROOM / 1024) * 1024;
+                writer.write(entry.getKey() + "=" + budget + "\n");
+            }
+        }
+    }
+
+    private interface Call {
+        Object run();
+    }
+}
@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Check for the Correlation tab's cache on a small synthetic database: a second Compute with the same
+// symbols (in another order) and window must reuse the loaded prices and the computed matrix.
+// Exits with 1 on failure.
+//
+//   java TestCorrelationCache
+public class TestCorrelationCache {
+
+    private static final int SYMBOLS = 20;
+    private static final int YEARS = 3;
+    private static final int LOOKBACK = 504;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        Path directory = Files.createTempDirectory("correlation-cache");
+        new SyntheticMarketData().symbols(SYMBOLS).years(YEARS).generate(directory, true);
+        System.setProperty("stocks.db", directory.resolve("stocks.db").toString());
+
+        boolean failed = false;
+        try {
+            StockDataService stockDataService = new StockDataService();
+            List<String> stockSymbols = new ArrayList<>(new SyntheticMarketData().symbols(SYMBOLS).getSymbols());
+
+            CovarianceCache first = CovarianceCache.forSymbols(null, stockSymbols, stockDataService);
+            CorrelationMatrix firstMatrix = first.getCorrelation(first.getPrices().numDays(), LOOKBACK);
+            List<String> sorted = new ArrayList<>(stockSymbols);
+            Collections.sort(sorted);
+            failed |= check("prices are in symbol order", first.getPrices().getStockSymbols().equals(sorted));
+
+            Collections.reverse(stockSymbols);
+            long hits = Metrics.counter("correlation.cacheHits").get();
+            CovarianceCache second = CovarianceCache.forSymbols(first, stockSymbols, stockDataService);
+            failed |= check("same symbols reuse the cache", second == first);
+            failed |= check("cache hit is counted", Metrics.counter("correlation.cacheHits").get() == hits + 1);
+            failed |= check("same window reuses the matrix",
+                    second.getCorrelation(second.getPrices().numDays(), LOOKBACK) == firstMatrix);
+
+            CovarianceCache third = CovarianceCache.forSymbols(first, stockSymbols.subList(0, SYMBOLS - 1), stockDataService);
+            failed |= check("other symbols reload the prices", third != first);
+        } finally {
+            for (String name : new String[]{"stocks.csv", "index.csv", "stocks.db"}) {
+                Files.deleteIfExists(directory.resolve(name));
+            }
+            Files.deleteIfExists(directory);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    // Prints the outcome; returns true on failure
+    private static boolean check(String description, boolean passed) {
+        System.out.println((passed ? "ok   " : "FAIL ") + description);
+        return !passed;
+    }
+}
@@ -1,21 +1,17 @@
 import java.sql.*;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
 
 public class TestStockDataQuery {
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
 
     public static void main(String[] args) {
         // Define the stock symbol and date you want to query
         String stockSymbol = "MMM";
         String queryDate = "2011-08-04"; // Make sure this date exists in your database
 
-        // Connect to the SQLite database
-        String url = "jdbc:sqlite:stocks.db";
         String sql = "SELECT date, adj_close, close, high, low, open, volume FROM stock_data WHERE stock_symbol = ? AND date = ?";
 
-        try (Connection conn = DriverManager.getConnection(url);
+        // Connect to the SQLite database
+        try (Connection conn = DatabaseUtil.connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             // Set the parameters
@@ -24,7 +20,7 @@ public class TestStockDataQuery {
 
             // Execute the query
             ResultSet rs = pstmt.executeQuery();
-            Date dateD = null;
+            LocalDate dateD = null;
 
             // Count rows by iterating
             int rowCount = 0;
@@ -33,9 +29,9 @@ public class TestStockDataQuery {
                 String dateString = rs.getString("date");
                 System.out.println("Date: " + dateString);
                 try {
-                    dateD = DATE_FORMAT.parse(dateString);
+                    dateD = EpochDays.toLocalDate(EpochDays.parseIso(dateString));
                     System.out.println("Date in Date format: " + dateD);
-                } catch (ParseException e) {
+                } catch (IllegalArgumentException e) {
                     System.out.println("Error parsing date.");
                     e.printStackTrace();
                 }
@@ -0,0 +1,82 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a tick file with lines "timestamp,symbol,price" (header line skipped)
+public class TickReplaySource implements PriceSource {
+
+    private final String filePath;
+    private final int ticksPerSecond; // 0 replays as fast as possible
+    private volatile boolean running;
+    private Thread replayThread;
+
+    public TickReplaySource(String filePath, int ticksPerSecond) {
+        this.filePath = filePath;
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    @Override
+    public synchronized void start(PriceListener listener, Runnable onFinished) {
+        if (running) return;
+        running = true;
+        replayThread = new Thread(() -> replay(listener, onFinished), "tick-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (replayThread != null) {
+            replayThread.interrupt();
+            replayThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void replay(PriceListener listener, Runnable onFinished) {
+        long nanosPerTick = ticksPerSecond > 0 ? 1_000_000_000L / ticksPerSecond : 0;
+        long nextTick = System.nanoTime();
+
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            // Skip the header line
+            br.readLine();
+
+            String line;
+            while (running && (line = br.readLine()) != null) {
+                int first = line.indexOf(',');
+                int second = line.indexOf(',', first + 1);
+                if (first < 0 || second < 0) continue; // Skip malformed rows
+
+                String stockSymbol = line.substring(first + 1, second);
+                double price;
+                try {
+                    price = Double.parseDouble(line.substring(second + 1).trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                listener.onPrice(stockSymbol, price);
+
+                if (nanosPerTick > 0) {
+                    nextTick += nanosPerTick;
+                    long wait = nextTick - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            running = false;
+            if (onFinished != null) {
+                onFinished.run();
+            }
+        }
+    }
+}
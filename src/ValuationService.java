@@ -0,0 +1,42 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ValuationService {
+
+    // Latest close of each symbol in a single query.
+    // SQLite returns the bare "close" column from the row holding MAX(date) in each group.
+    public PriceSnapshot snapshot(Collection<String> stockSymbols) {
+        Map<String, Double> latestPrices = new HashMap<>();
+        if (stockSymbols.isEmpty()) {
+            return new PriceSnapshot(latestPrices);
+        }
+
+        StringBuilder sqlBuilder = new StringBuilder("SELECT stock_symbol, close, MAX(date) FROM stock_data WHERE stock_symbol IN (");
+        for (int i = 0; i < stockSymbols.size(); i++) {
+            sqlBuilder.append(i == 0 ? "?" : ",?");
+        }
+        sqlBuilder.append(") GROUP BY stock_symbol");
+
+        try (Metrics.Stopwatch ignored = Metrics.time("query.snapshot");
+             Connection conn = DatabaseUtil.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sqlBuilder.toString())) {
+            int index = 1;
+            for (String stockSymbol : stockSymbols) {
+                pstmt.setString(index++, stockSymbol);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    latestPrices.put(rs.getString("stock_symbol"), rs.getDouble("close"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new PriceSnapshot(latestPrices);
+    }
+}
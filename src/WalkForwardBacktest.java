@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Re-optimizes at every rebalance date using only the history before that date, then values the
+// resulting sequence of portfolios. Optimizations are independent, so they run in parallel.
+public class WalkForwardBacktest {
+
+    private static final int MIN_HISTORY = 60; // trading days needed before the first estimate
+
+    private final int lookback;        // trading days of history per estimate
+    private final int rebalanceMonths; // months between rebalances
+    private final double riskFreeRate;
+    private final OptimizationMethod method;
+    private final CovarianceCache covarianceCache; // optional, shared between runs over the same prices
+
+    // Minimum variance by default: the max-Sharpe searches exhaust their budget on larger universes and
+    // most rebalances would fall back to equal weights
+    public WalkForwardBacktest(int lookback, int rebalanceMonths, double riskFreeRate) {
+        this(lookback, rebalanceMonths, riskFreeRate, OptimizationMethod.MIN_VARIANCE, null);
+    }
+
+    public WalkForwardBacktest(int lookback, int rebalanceMonths, double riskFreeRate, OptimizationMethod method, CovarianceCache covarianceCache) {
+        this.lookback = lookback;
+        this.rebalanceMonths = rebalanceMonths;
+        this.riskFreeRate = riskFreeRate;
+        this.method = method;
+        this.covarianceCache = covarianceCache;
+    }
+
+    public WalkForwardResult run(AlignedPrices prices, double initialValue, int start, int end) {
+        int[] rebalanceDays = rebalanceDays(prices.getDays(), start, end);
+
+        // Solve every rebalance date in parallel, each on its own optimizer instance
+        List<Map<String, Double>> weights = IntStream.range(0, rebalanceDays.length)
+                .parallel()
+                .mapToObj(r -> optimizeAt(prices, rebalanceDays[r]))
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        // A date the optimizer could not solve holds the listed stocks equally weighted, and is counted
+        int fallbacks = 0;
+        for (int r = 0; r < weights.size(); r++) {
+            if (weights.get(r) == null) {
+                weights.set(r, equalWeights(prices, rebalanceDays[r]));
+                fallbacks++;
+            }
+        }
+        if (fallbacks > 0) {
+            Metrics.counter("walkForward.fallbacks").add(fallbacks);
+        }
+
+        return simulate(prices, rebalanceDays, weights, fallbacks, initialValue, start, end);
+    }
+
+    // Target weights at the rebalance day, or null if the optimizer failed there
+    private Map<String, Double> optimizeAt(AlignedPrices prices, int day) {
+        if (day < MIN_HISTORY) {
+            // Not enough history: hold the listed stocks equally weighted
+            return equalWeights(prices, day);
+        }
+        try {
+            PortfolioOptimizer optimizer = new PortfolioOptimizer();
+            ReturnStatistics statistics = covarianceCache != null
+                    ? covarianceCache.get(day, lookback)
+                    : optimizer.computeStatistics(prices, day, lookback);
+            return optimizer.optimize(statistics, riskFreeRate, method);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Double> equalWeights(AlignedPrices prices, int day) {
+        List<String> listed = new ArrayList<>();
+        for (int s = 0; s < prices.numSymbols(); s++) {
+            if (!Double.isNaN(prices.getCloses(s)[day])) {
+                listed.add(prices.getStockSymbols().get(s));
+            }
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (String stockSymbol : listed) {
+            weights.put(stockSymbol, 1.0 / listed.size());
+        }
+        return weights;
+    }
+
+    // Sequential pass: trade into the target weights at each rebalance and value the book every day
+    private WalkForwardResult simulate(AlignedPrices prices, int[] rebalanceDays, List<Map<String, Double>> weights,
+                                       int fallbacks, double initialValue, int start, int end) {
+        int numSymbols = prices.numSymbols();
+        int numDays = Math.max(0, end - start);
+        double[] quantities = new double[numSymbols];
+        double[] values = new double[numDays];
+        double[] turnover = new double[rebalanceDays.length];
+        double value = initialValue;
+        int nextRebalance = 0;
+
+        for (int d = start; d < end; d++) {
+            if (nextRebalance < rebalanceDays.length && rebalanceDays[nextRebalance] == d) {
+                Map<String, Double> target = weights.get(nextRebalance);
+                double traded = 0.0;
+                for (int s = 0; s < numSymbols; s++) {
+                    double price = prices.getCloses(s)[d];
+                    if (Double.isNaN(price)) continue;
+                    double targetQuantity = target.getOrDefault(prices.getStockSymbols().get(s), 0.0) * value / price;
+                    traded += Math.abs(targetQuantity - quantities[s]) * price;
+                    quantities[s] = targetQuantity;
+                }
+                turnover[nextRebalance] = value > 0 ? traded / (2 * value) : 0.0;
+                nextRebalance++;
+            }
+
+            value = 0.0;
+            for (int s = 0; s < numSymbols; s++) {
+                double price = prices.getCloses(s)[d];
+                if (quantities[s] != 0 && !Double.isNaN(price)) {
+                    value += quantities[s] * price;
+                }
+            }
+            values[d - start] = value;
+        }
+
+        int[] days = Arrays.copyOfRange(prices.getDays(), start, start + numDays);
+        int[] rebalanceEpochDays = new int[rebalanceDays.length];
+        for (int r = 0; r < rebalanceDays.length; r++) {
+            rebalanceEpochDays[r] = prices.getDays()[rebalanceDays[r]];
+        }
+        return new WalkForwardResult(BacktestEngine.summarize(days, values), rebalanceEpochDays, turnover, weights, fallbacks);
+    }
+
+    // First trading day of every rebalance period in [start, end)
+    private int[] rebalanceDays(int[] epochDays, int start, int end) {
+        List<Integer> days = new ArrayList<>();
+        int lastPeriod = Integer.MIN_VALUE;
+        for (int d = start; d < end; d++) {
+            int monthNumber = EpochDays.monthIndex(epochDays[d]);
+            int period = Math.floorDiv(monthNumber, rebalanceMonths);
+            if (period != lastPeriod) {
+                days.add(d);
+                lastPeriod = period;
+            }
+        }
+        return days.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
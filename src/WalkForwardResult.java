@@ -0,0 +1,49 @@
+import java.util.List;
+import java.util.Map;
+
+public class WalkForwardResult {
+
+    private final BacktestResult backtest;
+    private final int[] rebalanceDays; // epoch days
+    private final double[] turnover; // one-way turnover at each rebalance, fraction of portfolio value
+    private final List<Map<String, Double>> weights; // target weights at each rebalance
+    private final int fallbacks; // rebalances where the optimizer failed and equal weights were held
+
+    public WalkForwardResult(BacktestResult backtest, int[] rebalanceDays, double[] turnover, List<Map<String, Double>> weights, int fallbacks) {
+        this.backtest = backtest;
+        this.rebalanceDays = rebalanceDays;
+        this.turnover = turnover;
+        this.weights = weights;
+        this.fallbacks = fallbacks;
+    }
+
+    public BacktestResult getBacktest() {
+        return backtest;
+    }
+
+    public int[] getRebalanceDays() {
+        return rebalanceDays;
+    }
+
+    public double[] getTurnover() {
+        return turnover;
+    }
+
+    public List<Map<String, Double>> getWeights() {
+        return weights;
+    }
+
+    public int getFallbacks() {
+        return fallbacks;
+    }
+
+    // Average turnover per rebalance, excluding the initial purchase
+    public double getAverageTurnover() {
+        if (turnover.length < 2) return 0.0;
+        double sum = 0.0;
+        for (int r = 1; r < turnover.length; r++) {
+            sum += turnover[r];
+        }
+        return sum / (turnover.length - 1);
+    }
+}